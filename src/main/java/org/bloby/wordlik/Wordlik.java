@@ -2,6 +2,12 @@ package org.bloby.wordlik;
 
 import org.bloby.wordlik.commands.Command;
 import org.bloby.wordlik.game.GameManager;
+import org.bloby.wordlik.game.Leaderboard;
+import org.bloby.wordlik.listeners.PlayerListener;
+import org.bloby.wordlik.stats.JournalStatsStore;
+import org.bloby.wordlik.stats.SqliteStatsStore;
+import org.bloby.wordlik.stats.StatsStore;
+import org.bloby.wordlik.stats.YamlStatsStore;
 import org.bloby.wordlik.utils.WordList;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -12,8 +18,12 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
 import java.util.logging.Level;
 
 public class Wordlik extends JavaPlugin {
@@ -21,8 +31,13 @@ public class Wordlik extends JavaPlugin {
     private GameManager gameManager;
     private WordList wordList;
     private Map<UUID, PlayerStats> playerStats;
-    private File statsFile;
-    private FileConfiguration statsConfig;
+    private Leaderboard leaderboard;
+    private Map<UUID, PlayerStats> pendingSaves;
+    private Map<UUID, Boolean> offlineStats;
+    private Set<UUID> onlinePlayers;
+    private int statsCacheSize;
+    private File statsFolder;
+    private StatsStore statsStore;
     private boolean soundsEnabled;
     private boolean debugMode;
     
@@ -32,26 +47,61 @@ public class Wordlik extends JavaPlugin {
         getLogger().info("  Wordlik Plugin - Zapínání...");
         getLogger().info("═══════════════════════════════════");
         
+        long enableStart = System.currentTimeMillis();
         saveDefaultConfig();
         loadConfiguration();
+        long configTime = System.currentTimeMillis() - enableStart;
         
         getLogger().info("Načítání slovního seznamu...");
-        wordList = new WordList();
+        long dictionaryStart = System.currentTimeMillis();
+        if (!new File(getDataFolder(), WordList.SOURCE_FILE).exists()) {
+            saveResource(WordList.SOURCE_FILE, false);
+        }
+        try {
+            wordList = new WordList(getDataFolder(), getConfig().getInt("game.word-length", WordList.WORD_LENGTH));
+        } catch (IOException e) {
+            getLogger().log(Level.SEVERE, "Nelze načíst slovník!", e);
+            getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
+        long dictionaryTime = System.currentTimeMillis() - dictionaryStart;
         getLogger().info("Načteno " + wordList.getWordCount() + " slov");
+        Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+            try {
+                long start = System.currentTimeMillis();
+                wordList.loadFeedbackMatrix();
+                getLogger().info("Matice zpětné vazby připravena (" + (System.currentTimeMillis() - start) + " ms)");
+            } catch (IOException e) {
+                getLogger().log(Level.WARNING, "Nelze připravit matici zpětné vazby", e);
+            }
+        });
         
         getLogger().info("Inicializace Game Manageru...");
         gameManager = new GameManager(this, wordList);
         
         getLogger().info("Načítání statistik hráčů...");
+        long statsStart = System.currentTimeMillis();
         playerStats = new ConcurrentHashMap<>();
+        pendingSaves = new ConcurrentHashMap<>();
+        offlineStats = new LinkedHashMap<>(16, 0.75f, true);
+        onlinePlayers = ConcurrentHashMap.newKeySet();
+        statsCacheSize = Math.max(0, getConfig().getInt("statistics.cache-size", 500));
+        leaderboard = new Leaderboard(getConfig().getInt("leaderboard.min-games", 5));
         loadStats();
+        long statsTime = System.currentTimeMillis() - statsStart;
         
         getLogger().info("Registrace příkazů...");
         Command commandExecutor = new Command(gameManager, this);
         Objects.requireNonNull(getCommand("wordlik")).setExecutor(commandExecutor);
+        getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            playerJoined(player);
+        }
         
         startAutoSave();
         
+        getLogger().info("Start trval " + (System.currentTimeMillis() - enableStart) + " ms (konfigurace " + configTime
+                         + " ms, slovník " + dictionaryTime + " ms, statistiky " + statsTime + " ms)");
         getLogger().info("═══════════════════════════════════");
         getLogger().info("  Wordlik Plugin byl úspěšně zapnut!");
         getLogger().info("  Verze: " + getDescription().getVersion());
@@ -77,10 +127,28 @@ public class Wordlik extends JavaPlugin {
                 }
             }
             gameManager.clearAllGames();
+            
+            try {
+                gameManager.saveDecks();
+            } catch (IOException e) {
+                getLogger().log(Level.SEVERE, "Nelze uložit balíčky slov!", e);
+            }
+            try {
+                gameManager.saveDailyPlayers();
+            } catch (IOException e) {
+                getLogger().log(Level.SEVERE, "Nelze uložit hráče denní výzvy!", e);
+            }
         }
         
         getLogger().info("Ukládání statistik hráčů...");
         saveStats();
+        if (statsStore != null) {
+            try {
+                statsStore.close();
+            } catch (IOException e) {
+                getLogger().log(Level.SEVERE, "Nelze uzavřít úložiště statistik!", e);
+            }
+        }
         
         getLogger().info("═══════════════════════════════════");
         getLogger().info("  Wordlik Plugin byl vypnut!");
@@ -105,96 +173,337 @@ public class Wordlik extends JavaPlugin {
     }
     
     private void loadStats() {
-        statsFile = new File(getDataFolder(), "stats.yml");
-        
-        if (!statsFile.exists()) {
+        statsFolder = new File(getDataFolder(), "stats");
+        StatsStore store = createStatsStore();
+        int[] players = new int[1];
+        try {
+            store.open();
+            store.forEachSummary((uuid, gamesPlayed, gamesWon, bestStreak, totalAttempts) -> {
+                leaderboard.update(uuid, gamesPlayed, gamesWon, bestStreak, totalAttempts);
+                players[0]++;
+            });
+        } catch (IOException | RuntimeException e) {
+            getLogger().log(Level.SEVERE, "Nelze načíst statistiky hráčů!", e);
             try {
-                statsFile.getParentFile().mkdirs();
-                statsFile.createNewFile();
-                getLogger().info("Vytvořen nový soubor statistik");
-            } catch (IOException e) {
-                getLogger().log(Level.SEVERE, "Nelze vytvořit soubor statistik!", e);
-                return;
+                store.close();
+            } catch (IOException | RuntimeException ignored) {
             }
+            return;
         }
+        statsStore = store;
         
-        statsConfig = YamlConfiguration.loadConfiguration(statsFile);
+        migrateStatsFiles();
         
-        for (String key : statsConfig.getKeys(false)) {
-            try {
-                UUID uuid = UUID.fromString(key);
-                PlayerStats stats = new PlayerStats();
-                
-                stats.gamesPlayed = statsConfig.getInt(key + ".gamesPlayed", 0);
-                stats.gamesWon = statsConfig.getInt(key + ".gamesWon", 0);
-                stats.currentStreak = statsConfig.getInt(key + ".currentStreak", 0);
-                stats.bestStreak = statsConfig.getInt(key + ".bestStreak", 0);
-                stats.totalAttempts = statsConfig.getInt(key + ".totalAttempts", 0);
-                stats.totalPlayTime = statsConfig.getLong(key + ".totalPlayTime", 0);
-                stats.hintsUsed = statsConfig.getInt(key + ".hintsUsed", 0);
-                
-                if (statsConfig.contains(key + ".attemptsDistribution")) {
-                    for (String attempt : statsConfig.getConfigurationSection(key + ".attemptsDistribution").getKeys(false)) {
-                        int attemptNum = Integer.parseInt(attempt);
-                        int count = statsConfig.getInt(key + ".attemptsDistribution." + attempt);
-                        stats.attemptsDistribution.put(attemptNum, count);
+        getLogger().info("Zaindexovány statistiky " + players[0] + " hráčů");
+    }
+    
+    private StatsStore createStatsStore() {
+        String storage = getConfig().getString("statistics.storage", "journal").toLowerCase(Locale.ROOT);
+        switch (storage) {
+            case "yaml":
+                return new YamlStatsStore(new File(getDataFolder(), "stats.yml"));
+            case "sqlite":
+                long flushInterval = 50L * Math.max(1, getConfig().getInt("statistics.journal-commit-ticks", 20));
+                return new SqliteStatsStore(new File(statsFolder, "stats.db"), flushInterval, getLogger());
+            case "journal":
+                return new JournalStatsStore(statsFolder, getConfig().getInt("statistics.shards", 8), getLogger());
+            default:
+                getLogger().warning("Neznámé úložiště statistik '" + storage + "', používám journal");
+                return new JournalStatsStore(statsFolder, getConfig().getInt("statistics.shards", 8), getLogger());
+        }
+    }
+    
+    /**
+     * Imports stats kept as YAML by earlier versions, both the per-player files in {@code stats/}
+     * and the single {@code stats.yml}, into the configured store. The YAML files are retired only
+     * once the imported records are flushed. With the YAML store {@code stats.yml} is the store itself
+     * and stays in place.
+     */
+    private void migrateStatsFiles() {
+        List<File> imported = new ArrayList<>();
+        int migrated = 0;
+        
+        File[] files = statsFolder.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (files != null) {
+            for (File file : files) {
+                String key = file.getName().substring(0, file.getName().length() - 4);
+                try {
+                    UUID uuid = UUID.fromString(key);
+                    if (!hasStoredStats(uuid)) {
+                        importStats(uuid, YamlStatsStore.read(YamlConfiguration.loadConfiguration(file)));
+                        migrated++;
                     }
+                    imported.add(file);
+                } catch (Exception e) {
+                    getLogger().warning("Chyba při načítání statistik pro: " + key);
+                }
+            }
+        }
+        
+        File legacyFile = new File(getDataFolder(), "stats.yml");
+        boolean importLegacy = legacyFile.exists() && !(statsStore instanceof YamlStatsStore);
+        if (importLegacy) {
+            YamlConfiguration legacy = YamlConfiguration.loadConfiguration(legacyFile);
+            for (String key : legacy.getKeys(false)) {
+                try {
+                    UUID uuid = UUID.fromString(key);
+                    if (!hasStoredStats(uuid)) {
+                        importStats(uuid, YamlStatsStore.read(legacy.getConfigurationSection(key)));
+                        migrated++;
+                    }
+                } catch (Exception e) {
+                    getLogger().warning("Chyba při načítání statistik pro: " + key);
                 }
-                
-                playerStats.put(uuid, stats);
-            } catch (Exception e) {
-                getLogger().warning("Chyba při načítání statistik pro: " + key);
             }
+        } else if (imported.isEmpty()) {
+            return;
+        }
+        
+        if (!saveStats()) {
+            getLogger().warning("Převedené statistiky se nepodařilo uložit, YAML soubory zůstávají zachovány");
+            return;
         }
         
-        getLogger().info("Načteny statistiky pro " + playerStats.size() + " hráčů");
+        for (File file : imported) {
+            file.delete();
+        }
+        if (importLegacy) {
+            legacyFile.renameTo(new File(getDataFolder(), "stats.yml.migrated"));
+        }
+        getLogger().info("Převedeny statistiky " + migrated + " hráčů z YAML");
     }
     
-    private void saveStats() {
-        if (statsConfig == null || statsFile == null) {
-            return;
+    private void importStats(UUID uuid, PlayerStats.Snapshot snapshot) {
+        PlayerStats stats = restoreStats(uuid, snapshot);
+        stats.markDirty();
+        playerStats.put(uuid, stats);
+        pendingSaves.put(uuid, stats);
+        leaderboard.update(uuid, stats.snapshot());
+        trackOffline(uuid);
+    }
+    
+    private boolean hasStoredStats(UUID uuid) throws IOException {
+        return playerStats.containsKey(uuid) || statsStore.contains(uuid);
+    }
+    
+    private PlayerStats restoreStats(UUID uuid, PlayerStats.Snapshot snapshot) {
+        PlayerStats stats = newPlayerStats(uuid);
+        stats.gamesPlayed = snapshot.gamesPlayed;
+        stats.gamesWon = snapshot.gamesWon;
+        stats.currentStreak = snapshot.currentStreak;
+        stats.bestStreak = snapshot.bestStreak;
+        stats.totalAttempts = snapshot.totalAttempts;
+        stats.totalPlayTime = snapshot.totalPlayTime;
+        stats.hintsUsed = snapshot.hintsUsed;
+        stats.attemptsDistribution = snapshot.attemptsDistribution.clone();
+        return stats;
+    }
+    
+    /**
+     * Hands the current record of every player whose stats changed since the last call to the
+     * store and flushes it. Repeated changes to one player between two saves cost a single record.
+     * If the flush fails the players are queued again and {@code false} is returned.
+     */
+    private synchronized boolean saveStats() {
+        if (statsStore == null) {
+            return false;
         }
         
-        for (Map.Entry<UUID, PlayerStats> entry : playerStats.entrySet()) {
-            String key = entry.getKey().toString();
-            PlayerStats stats = entry.getValue();
+        Map<UUID, PlayerStats> saved = new HashMap<>();
+        Iterator<Map.Entry<UUID, PlayerStats>> pending = pendingSaves.entrySet().iterator();
+        while (pending.hasNext()) {
+            Map.Entry<UUID, PlayerStats> entry = pending.next();
+            pending.remove();
             
-            statsConfig.set(key + ".gamesPlayed", stats.gamesPlayed);
-            statsConfig.set(key + ".gamesWon", stats.gamesWon);
-            statsConfig.set(key + ".currentStreak", stats.currentStreak);
-            statsConfig.set(key + ".bestStreak", stats.bestStreak);
-            statsConfig.set(key + ".totalAttempts", stats.totalAttempts);
-            statsConfig.set(key + ".totalPlayTime", stats.totalPlayTime);
-            statsConfig.set(key + ".hintsUsed", stats.hintsUsed);
-            
-            for (Map.Entry<Integer, Integer> dist : stats.attemptsDistribution.entrySet()) {
-                statsConfig.set(key + ".attemptsDistribution." + dist.getKey(), dist.getValue());
+            PlayerStats.Snapshot snapshot = entry.getValue().takeDirtySnapshot();
+            if (snapshot != null) {
+                statsStore.save(entry.getKey(), snapshot);
+                saved.put(entry.getKey(), entry.getValue());
             }
         }
         
         try {
-            statsConfig.save(statsFile);
+            statsStore.flush();
+        } catch (IOException e) {
+            getLogger().log(Level.SEVERE, "Nelze uložit statistiky hráčů!", e);
+            for (Map.Entry<UUID, PlayerStats> entry : saved.entrySet()) {
+                entry.getValue().markDirty();
+                pendingSaves.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+            return false;
+        }
+        
+        if (debugMode && !saved.isEmpty()) {
+            getLogger().info("Uloženy statistiky " + saved.size() + " hráčů");
+        }
+        
+        evictStats();
+        return true;
+    }
+    
+    /**
+     * Drops the least recently used stats of offline players beyond {@code statistics.cache-size}.
+     * Records with changes not yet in the store are kept until the next save.
+     */
+    private void evictStats() {
+        synchronized (offlineStats) {
+            Iterator<UUID> eldest = offlineStats.keySet().iterator();
+            int excess = offlineStats.size() - statsCacheSize;
+            while (excess > 0 && eldest.hasNext()) {
+                UUID uuid = eldest.next();
+                PlayerStats stats = playerStats.get(uuid);
+                if (stats != null && (pendingSaves.containsKey(uuid) || stats.isDirty())) {
+                    continue;
+                }
+                
+                eldest.remove();
+                if (stats != null) {
+                    playerStats.remove(uuid, stats);
+                }
+                excess--;
+            }
+        }
+    }
+    
+    private void trackOffline(UUID uuid) {
+        if (onlinePlayers.contains(uuid)) {
+            return;
+        }
+        synchronized (offlineStats) {
+            offlineStats.put(uuid, Boolean.TRUE);
+        }
+    }
+    
+    /**
+     * Loads a player's stats ahead of their join, off the main thread.
+     */
+    public void prefetchStats(UUID uuid) {
+        getPlayerStats(uuid);
+    }
+    
+    public void playerJoined(Player player) {
+        UUID uuid = player.getUniqueId();
+        onlinePlayers.add(uuid);
+        synchronized (offlineStats) {
+            offlineStats.remove(uuid);
+        }
+        getPlayerStats(uuid);
+        leaderboard.cacheName(uuid, player.getName());
+    }
+    
+    public void playerQuit(Player player) {
+        UUID uuid = player.getUniqueId();
+        onlinePlayers.remove(uuid);
+        if (playerStats.containsKey(uuid)) {
+            trackOffline(uuid);
+        }
+        gameManager.unloadDecks(uuid);
+    }
+    
+    private void compactStats() {
+        if (statsStore == null) {
+            return;
+        }
+        
+        try {
+            long start = System.currentTimeMillis();
+            statsStore.compact();
             if (debugMode) {
-                getLogger().info("Statistiky uloženy");
+                getLogger().info("Úložiště statistik zkompaktováno (" + (System.currentTimeMillis() - start) + " ms)");
             }
         } catch (IOException e) {
-            getLogger().log(Level.SEVERE, "Nelze uložit statistiky!", e);
+            getLogger().log(Level.WARNING, "Nelze zkompaktovat úložiště statistik", e);
         }
     }
     
     private void startAutoSave() {
         int interval = getConfig().getInt("auto-save-interval", 300);
+        int commitTicks = Math.max(1, getConfig().getInt("statistics.journal-commit-ticks", 20));
+        
+        Bukkit.getScheduler().runTaskTimerAsynchronously(this, this::saveStats, commitTicks, commitTicks);
         
         Bukkit.getScheduler().runTaskTimerAsynchronously(this, () -> {
             saveStats();
+            compactStats();
+            try {
+                gameManager.saveDecks();
+            } catch (IOException e) {
+                getLogger().log(Level.WARNING, "Nelze uložit balíčky slov", e);
+            }
+            try {
+                gameManager.saveDailyPlayers();
+            } catch (IOException e) {
+                getLogger().log(Level.WARNING, "Nelze uložit hráče denní výzvy", e);
+            }
             if (debugMode) {
                 getLogger().info("Auto-save: Statistiky uloženy");
             }
         }, 20L * interval, 20L * interval);
     }
     
+    public void reloadWordList(Player requester) {
+        int wordLength = getConfig().getInt("game.word-length", WordList.WORD_LENGTH);
+        Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+            String message;
+            try {
+                long start = System.currentTimeMillis();
+                wordList.reload(wordLength);
+                wordList.loadFeedbackMatrix();
+                message = ChatColor.GREEN + "Slovník byl znovu načten! Slov: " + wordList.getWordCount() + 
+                          " (" + (System.currentTimeMillis() - start) + " ms)";
+                getLogger().info("Slovník znovu načten: " + wordList.getWordCount() + " slov");
+            } catch (IOException e) {
+                getLogger().log(Level.WARNING, "Nelze znovu načíst slovník", e);
+                message = ChatColor.RED + "Slovník se nepodařilo načíst, zůstává původní: " + e.getMessage();
+            }
+            String result = message;
+            Bukkit.getScheduler().runTask(this, () -> requester.sendMessage(result));
+        });
+    }
+    
+    /**
+     * The player's stats, loaded from the store on first use. If the stored record cannot be read,
+     * a detached blank record is returned instead: it is neither cached nor saved, so the stored
+     * stats are never overwritten and the next call retries the load.
+     */
     public PlayerStats getPlayerStats(UUID uuid) {
-        return playerStats.computeIfAbsent(uuid, k -> new PlayerStats());
+        PlayerStats stats = playerStats.get(uuid);
+        if (stats == null) {
+            try {
+                stats = playerStats.computeIfAbsent(uuid, this::loadPlayerStats);
+            } catch (RuntimeException e) {
+                getLogger().log(Level.WARNING, "Nelze načíst statistiky hráče " + uuid + ", změny se neuloží", e);
+                return new PlayerStats();
+            }
+        }
+        trackOffline(uuid);
+        return stats;
+    }
+    
+    private PlayerStats loadPlayerStats(UUID uuid) {
+        if (statsStore != null) {
+            PlayerStats.Snapshot snapshot;
+            try {
+                snapshot = statsStore.load(uuid);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (snapshot != null) {
+                return restoreStats(uuid, snapshot);
+            }
+        }
+        return newPlayerStats(uuid);
+    }
+    
+    private PlayerStats newPlayerStats(UUID uuid) {
+        return new PlayerStats((stats, snapshot) -> {
+            pendingSaves.put(uuid, stats);
+            leaderboard.update(uuid, snapshot);
+        });
+    }
+    
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
     }
     
     public boolean areSoundsEnabled() {
@@ -214,6 +523,11 @@ public class Wordlik extends JavaPlugin {
     }
     
     public static class PlayerStats {
+        public static final int MAX_ATTEMPTS = 6;
+        
+        private final StampedLock lock;
+        private final BiConsumer<PlayerStats, Snapshot> listener;
+        private boolean dirty;
         private int gamesPlayed;
         private int gamesWon;
         private int currentStreak;
@@ -221,9 +535,16 @@ public class Wordlik extends JavaPlugin {
         private int totalAttempts;
         private long totalPlayTime;
         private int hintsUsed;
-        private Map<Integer, Integer> attemptsDistribution;
+        private int[] attemptsDistribution;
         
         public PlayerStats() {
+            this(null);
+        }
+        
+        public PlayerStats(BiConsumer<PlayerStats, Snapshot> listener) {
+            this.lock = new StampedLock();
+            this.listener = listener;
+            this.dirty = false;
             this.gamesPlayed = 0;
             this.gamesWon = 0;
             this.currentStreak = 0;
@@ -231,67 +552,321 @@ public class Wordlik extends JavaPlugin {
             this.totalAttempts = 0;
             this.totalPlayTime = 0;
             this.hintsUsed = 0;
-            this.attemptsDistribution = new HashMap<>();
+            this.attemptsDistribution = new int[MAX_ATTEMPTS];
         }
         
         public void recordWin(int attempts, long playTime) {
-            gamesPlayed++;
-            gamesWon++;
-            currentStreak++;
-            totalAttempts += attempts;
-            totalPlayTime += playTime;
-            
-            if (currentStreak > bestStreak) {
-                bestStreak = currentStreak;
+            long stamp = lock.writeLock();
+            try {
+                dirty = true;
+                gamesPlayed++;
+                gamesWon++;
+                currentStreak++;
+                totalAttempts += attempts;
+                totalPlayTime += playTime;
+                
+                if (currentStreak > bestStreak) {
+                    bestStreak = currentStreak;
+                }
+                
+                if (attempts > 0) {
+                    if (attempts > attemptsDistribution.length) {
+                        attemptsDistribution = Arrays.copyOf(attemptsDistribution, attempts);
+                    }
+                    attemptsDistribution[attempts - 1]++;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
             }
-            
-            attemptsDistribution.put(attempts, attemptsDistribution.getOrDefault(attempts, 0) + 1);
+            changed();
         }
         
         public void recordLoss(long playTime) {
-            gamesPlayed++;
-            currentStreak = 0;
-            totalPlayTime += playTime;
+            long stamp = lock.writeLock();
+            try {
+                dirty = true;
+                gamesPlayed++;
+                currentStreak = 0;
+                totalPlayTime += playTime;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            changed();
+        }
+        
+        private void changed() {
+            if (listener != null) {
+                listener.accept(this, snapshot());
+            }
         }
         
         public void addHintUsed() {
-            hintsUsed++;
+            long stamp = lock.writeLock();
+            try {
+                dirty = true;
+                hintsUsed++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            changed();
+        }
+        
+        /**
+         * Consistent copy of all counters. Tries an optimistic read first, so a save running on
+         * another thread never holds up the game thread; only if a write slipped in meanwhile is
+         * the copy retaken under the read lock.
+         */
+        public Snapshot snapshot() {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                try {
+                    Snapshot snapshot = copy();
+                    if (lock.validate(stamp)) {
+                        return snapshot;
+                    }
+                } catch (RuntimeException e) {
+                    if (lock.validate(stamp)) {
+                        throw e;
+                    }
+                }
+            }
+            
+            stamp = lock.readLock();
+            try {
+                return copy();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        
+        /**
+         * Copy of the counters if they changed since the last call, clearing the dirty flag in the
+         * same step; {@code null} if there is nothing to save.
+         */
+        public Snapshot takeDirtySnapshot() {
+            long stamp = lock.writeLock();
+            try {
+                if (!dirty) {
+                    return null;
+                }
+                dirty = false;
+                return copy();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        
+        public void markDirty() {
+            long stamp = lock.writeLock();
+            try {
+                dirty = true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        
+        public boolean isDirty() {
+            long stamp = lock.readLock();
+            try {
+                return dirty;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        
+        private Snapshot copy() {
+            return new Snapshot(gamesPlayed, gamesWon, currentStreak, bestStreak, totalAttempts, totalPlayTime,
+                                hintsUsed, attemptsDistribution.clone());
         }
         
         public int getGamesPlayed() {
-            return gamesPlayed;
+            return snapshot().getGamesPlayed();
         }
         
         public int getGamesWon() {
-            return gamesWon;
+            return snapshot().getGamesWon();
         }
         
         public int getCurrentStreak() {
-            return currentStreak;
+            return snapshot().getCurrentStreak();
         }
         
         public int getBestStreak() {
-            return bestStreak;
+            return snapshot().getBestStreak();
         }
         
         public double getWinRate() {
-            return gamesPlayed > 0 ? (double) gamesWon / gamesPlayed * 100 : 0.0;
+            return snapshot().getWinRate();
         }
         
         public double getAverageAttempts() {
-            return gamesWon > 0 ? (double) totalAttempts / gamesWon : 0.0;
+            return snapshot().getAverageAttempts();
         }
         
         public long getAveragePlayTime() {
-            return gamesPlayed > 0 ? totalPlayTime / gamesPlayed : 0;
+            return snapshot().getAveragePlayTime();
         }
         
-        public Map<Integer, Integer> getAttemptsDistribution() {
-            return new HashMap<>(attemptsDistribution);
+        public int getAttemptCount(int attempts) {
+            return snapshot().getAttemptCount(attempts);
         }
         
         public int getHintsUsed() {
-            return hintsUsed;
+            return snapshot().getHintsUsed();
+        }
+        
+        /**
+         * Immutable copy of a player's counters. {@link #encode()} writes it as a fixed-width record:
+         * a version byte, the five int counters, play time as a long, hints used, then the number of
+         * distribution slots followed by one int per slot.
+         */
+        public static final class Snapshot {
+            public static final byte RECORD_VERSION = 2;
+            private static final byte SPARSE_RECORD_VERSION = 1;
+            private static final int HEADER_SIZE = 1 + 5 * 4 + 8 + 4 + 1;
+            
+            private final int gamesPlayed;
+            private final int gamesWon;
+            private final int currentStreak;
+            private final int bestStreak;
+            private final int totalAttempts;
+            private final long totalPlayTime;
+            private final int hintsUsed;
+            private final int[] attemptsDistribution;
+            
+            /**
+             * Takes ownership of {@code attemptsDistribution}, where slot {@code i} counts wins in
+             * {@code i + 1} attempts.
+             */
+            public Snapshot(int gamesPlayed, int gamesWon, int currentStreak, int bestStreak, int totalAttempts,
+                            long totalPlayTime, int hintsUsed, int[] attemptsDistribution) {
+                this.gamesPlayed = gamesPlayed;
+                this.gamesWon = gamesWon;
+                this.currentStreak = currentStreak;
+                this.bestStreak = bestStreak;
+                this.totalAttempts = totalAttempts;
+                this.totalPlayTime = totalPlayTime;
+                this.hintsUsed = hintsUsed;
+                this.attemptsDistribution = attemptsDistribution;
+            }
+            
+            public int getGamesPlayed() {
+                return gamesPlayed;
+            }
+            
+            public int getGamesWon() {
+                return gamesWon;
+            }
+            
+            public int getCurrentStreak() {
+                return currentStreak;
+            }
+            
+            public int getBestStreak() {
+                return bestStreak;
+            }
+            
+            public int getTotalAttempts() {
+                return totalAttempts;
+            }
+            
+            public long getTotalPlayTime() {
+                return totalPlayTime;
+            }
+            
+            public int getHintsUsed() {
+                return hintsUsed;
+            }
+            
+            public double getWinRate() {
+                return gamesPlayed > 0 ? (double) gamesWon / gamesPlayed * 100 : 0.0;
+            }
+            
+            public double getAverageAttempts() {
+                return gamesWon > 0 ? (double) totalAttempts / gamesWon : 0.0;
+            }
+            
+            public long getAveragePlayTime() {
+                return gamesPlayed > 0 ? totalPlayTime / gamesPlayed : 0;
+            }
+            
+            public int getAttemptCount(int attempts) {
+                return attempts > 0 && attempts <= attemptsDistribution.length ? attemptsDistribution[attempts - 1] : 0;
+            }
+            
+            public int getDistributionSize() {
+                return attemptsDistribution.length;
+            }
+            
+            public byte[] encode() {
+                ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 4 * attemptsDistribution.length);
+                buffer.put(RECORD_VERSION);
+                buffer.putInt(gamesPlayed);
+                buffer.putInt(gamesWon);
+                buffer.putInt(currentStreak);
+                buffer.putInt(bestStreak);
+                buffer.putInt(totalAttempts);
+                buffer.putLong(totalPlayTime);
+                buffer.putInt(hintsUsed);
+                buffer.put((byte) attemptsDistribution.length);
+                for (int count : attemptsDistribution) {
+                    buffer.putInt(count);
+                }
+                return buffer.array();
+            }
+            
+            /**
+             * Reads a record written by {@link #encode()}, or by the earlier format that stored the
+             * distribution as {@code (attempts, count)} pairs.
+             */
+            public static Snapshot decode(byte[] record) {
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                byte version = buffer.get();
+                if (version != RECORD_VERSION && version != SPARSE_RECORD_VERSION) {
+                    throw new IllegalArgumentException("Nepodporovaná verze záznamu statistik: " + version);
+                }
+                
+                int gamesPlayed = buffer.getInt();
+                int gamesWon = buffer.getInt();
+                int currentStreak = buffer.getInt();
+                int bestStreak = buffer.getInt();
+                int totalAttempts = buffer.getInt();
+                long totalPlayTime = buffer.getLong();
+                int hintsUsed = buffer.getInt();
+                
+                int entries = buffer.get() & 0xFF;
+                int[] distribution;
+                if (version == RECORD_VERSION) {
+                    distribution = new int[Math.max(MAX_ATTEMPTS, entries)];
+                    for (int i = 0; i < entries; i++) {
+                        distribution[i] = buffer.getInt();
+                    }
+                } else {
+                    distribution = new int[MAX_ATTEMPTS];
+                    for (int i = 0; i < entries; i++) {
+                        int attempts = buffer.get() & 0xFF;
+                        int count = buffer.getInt();
+                        if (attempts > distribution.length) {
+                            distribution = Arrays.copyOf(distribution, attempts);
+                        }
+                        if (attempts > 0) {
+                            distribution[attempts - 1] = count;
+                        }
+                    }
+                }
+                
+                return new Snapshot(gamesPlayed, gamesWon, currentStreak, bestStreak, totalAttempts, totalPlayTime,
+                                    hintsUsed, distribution);
+            }
+            
+            /**
+             * Whether {@code record} is in a format {@link #decode} reads. Both formats keep games
+             * played, games won, best streak and total attempts as ints at offsets 1, 5, 13 and 17.
+             */
+            public static boolean isSupported(byte[] record) {
+                return record.length >= HEADER_SIZE
+                    && (record[0] == RECORD_VERSION || record[0] == SPARSE_RECORD_VERSION);
+            }
         }
     }
 }
@@ -3,24 +3,33 @@ package org.bloby.wordlik.commands;
 import org.bloby.wordlik.Wordlik;
 import org.bloby.wordlik.game.GameManager;
 import org.bloby.wordlik.game.GuessResult;
+import org.bloby.wordlik.game.Leaderboard;
 import org.bloby.wordlik.game.WordleGame;
+import org.bloby.wordlik.utils.WordList;
 import org.bukkit.ChatColor;
 import org.bukkit.Sound;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 public class Command implements CommandExecutor {
     
+    private static final int LEADERBOARD_PAGE_SIZE = 10;
+    
     private final GameManager gameManager;
     private final Wordlik plugin;
+    private final Map<String, RenderedPage> leaderboardPages;
     
     public Command(GameManager gameManager, Wordlik plugin) {
         this.gameManager = gameManager;
         this.plugin = plugin;
+        this.leaderboardPages = new HashMap<>();
     }
     
     @Override
@@ -43,7 +52,7 @@ public class Command implements CommandExecutor {
             case "start":
             case "nova":
             case "new":
-                handleStart(player);
+                handleStart(player, args);
                 break;
                 
             case "stop":
@@ -71,7 +80,7 @@ public class Command implements CommandExecutor {
             case "top":
             case "leaderboard":
             case "zebricek":
-                handleLeaderboard(player);
+                handleLeaderboard(player, args);
                 break;
                 
             case "hint":
@@ -84,31 +93,52 @@ public class Command implements CommandExecutor {
                 break;
                 
             default:
-                if (args[0].length() == 5) {
-                    handleGuess(player, args[0]);
-                } else {
-                    player.sendMessage(ChatColor.RED + "Slovo musí mít přesně 5 písmen!");
-                }
+                handleGuess(player, args[0]);
                 break;
         }
         
         return true;
     }
     
-    private void handleStart(Player player) {
+    private void handleStart(Player player, String[] args) {
         if (gameManager.hasActiveGame(player)) {
             player.sendMessage(ChatColor.YELLOW + "Už máš aktivní hru! Použij /wordlik stop pro ukončení.");
             return;
         }
         
-        gameManager.startGame(player);
+        WordList wordList = plugin.getWordList();
+        int wordLength = wordList.getDefaultLength();
+        if (args.length > 1) {
+            try {
+                wordLength = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                wordLength = -1;
+            }
+            if (!wordList.isSupportedLength(wordLength)) {
+                player.sendMessage(ChatColor.RED + "Nepodporovaná délka slova! Dostupné délky: " + 
+                                 ChatColor.YELLOW + wordList.getSupportedLengths());
+                return;
+            }
+        }
+        
+        if (!gameManager.startGame(player, wordLength)) {
+            player.sendMessage(ChatColor.RED + "Hru se nepodařilo spustit!");
+            return;
+        }
         
+        WordleGame game = gameManager.getGame(player);
+        if (game != null) {
+            sendStartMessage(player, "WORDLIK - České Wordle", game);
+        }
+    }
+    
+    private void sendStartMessage(Player player, String title, WordleGame game) {
         player.sendMessage("");
         player.sendMessage(ChatColor.GREEN + "═══════════════════════════════════");
-        player.sendMessage(ChatColor.GOLD + ChatColor.BOLD.toString() + "       WORDLIK - České Wordle");
+        player.sendMessage(ChatColor.GOLD + ChatColor.BOLD.toString() + "       " + title);
         player.sendMessage(ChatColor.GREEN + "═══════════════════════════════════");
-        player.sendMessage(ChatColor.WHITE + "Hádej " + ChatColor.YELLOW + "5písmenné" + ChatColor.WHITE + " české slovo!");
-        player.sendMessage(ChatColor.WHITE + "Máš " + ChatColor.YELLOW + ChatColor.BOLD + "6 pokusů" + ChatColor.WHITE + ".");
+        player.sendMessage(ChatColor.WHITE + "Hádej " + ChatColor.YELLOW + game.getWordLength() + "písmenné" + ChatColor.WHITE + " české slovo!");
+        player.sendMessage(ChatColor.WHITE + "Máš " + ChatColor.YELLOW + ChatColor.BOLD + game.getMaxAttempts() + " pokusů" + ChatColor.WHITE + ".");
         player.sendMessage("");
         player.sendMessage(ChatColor.GRAY + "Barvy písmen:");
         player.sendMessage(ChatColor.GREEN + "■ " + ChatColor.WHITE + "Písmeno je na správném místě");
@@ -152,11 +182,13 @@ public class Command implements CommandExecutor {
             return;
         }
         
-        GuessResult result = game.makeGuess(guess.toLowerCase());
+        GuessResult result = game.makeGuess(guess);
+        gameManager.recordAttempt(player);
         
         switch (result.getStatus()) {
             case INVALID_LENGTH:
-                player.sendMessage(ChatColor.RED + "Slovo musí mít přesně 5 písmen!");
+                player.sendMessage(ChatColor.RED + "Slovo musí mít přesně " + game.getWordLength() + " " + 
+                                 letterWord(game.getWordLength()) + "!");
                 if (plugin.areSoundsEnabled()) {
                     player.playSound(player.getLocation(), Sound.ENTITY_VILLAGER_NO, 0.5f, 0.8f);
                 }
@@ -231,11 +263,16 @@ public class Command implements CommandExecutor {
     }
     
     private void displayGuess(Player player, GuessResult result) {
+        String guess = result.getGuess();
+        if (guess == null) {
+            return;
+        }
+        
         StringBuilder display = new StringBuilder(ChatColor.WHITE + "");
-        char[] letters = result.getGuess().toUpperCase().toCharArray();
+        char[] letters = guess.toUpperCase().toCharArray();
         
         for (int i = 0; i < letters.length; i++) {
-            switch (result.getFeedback()[i]) {
+            switch (GuessResult.statusOf(result.getPattern(), i)) {
                 case CORRECT:
                     display.append(ChatColor.GREEN).append(ChatColor.BOLD).append(" ").append(letters[i]).append(" ");
                     break;
@@ -252,7 +289,7 @@ public class Command implements CommandExecutor {
     }
     
     private void handleStats(Player player) {
-        Wordlik.PlayerStats stats = plugin.getPlayerStats(player.getUniqueId());
+        Wordlik.PlayerStats.Snapshot stats = plugin.getPlayerStats(player.getUniqueId()).snapshot();
         
         player.sendMessage("");
         player.sendMessage(ChatColor.GOLD + "═══════ Tvoje Statistiky ═══════");
@@ -270,9 +307,8 @@ public class Command implements CommandExecutor {
         
         player.sendMessage("");
         player.sendMessage(ChatColor.GOLD + "Distribuce pokusů:");
-        Map<Integer, Integer> dist = stats.getAttemptsDistribution();
-        for (int i = 1; i <= 6; i++) {
-            int count = dist.getOrDefault(i, 0);
+        for (int i = 1; i <= Wordlik.PlayerStats.MAX_ATTEMPTS; i++) {
+            int count = stats.getAttemptCount(i);
             String bar = createBar(count, stats.getGamesWon());
             player.sendMessage(ChatColor.GRAY + "" + i + ": " + ChatColor.GREEN + bar + ChatColor.WHITE + " " + count);
         }
@@ -280,6 +316,10 @@ public class Command implements CommandExecutor {
         player.sendMessage("");
     }
     
+    private String letterWord(int count) {
+        return count >= 2 && count <= 4 ? "písmena" : "písmen";
+    }
+    
     private String createBar(int value, int max) {
         if (max == 0) return "";
         int length = (int) Math.ceil((value * 20.0) / max);
@@ -291,11 +331,104 @@ public class Command implements CommandExecutor {
     }
     
     private void handleDaily(Player player) {
-        player.sendMessage(ChatColor.GOLD + "Denní výzva bude brzy k dispozici!");
+        if (gameManager.hasActiveGame(player)) {
+            player.sendMessage(ChatColor.YELLOW + "Už máš aktivní hru! Použij /wordlik stop pro ukončení.");
+            return;
+        }
+        
+        if (gameManager.hasPlayedDaily(player)) {
+            player.sendMessage(ChatColor.YELLOW + "Dnešní výzvu už máš za sebou! Další bude zítra.");
+            return;
+        }
+        
+        if (!gameManager.startDailyGame(player)) {
+            player.sendMessage(ChatColor.RED + "Denní výzvu se nepodařilo spustit!");
+            return;
+        }
+        
+        WordleGame game = gameManager.getGame(player);
+        sendStartMessage(player, "DENNÍ VÝZVA " + game.getDailyChallenge().getDate(), game);
     }
     
-    private void handleLeaderboard(Player player) {
-        player.sendMessage(ChatColor.GOLD + "Žebříček bude brzy k dispozici!");
+    private void handleLeaderboard(Player player, String[] args) {
+        Leaderboard leaderboard = plugin.getLeaderboard();
+        leaderboard.cacheName(player.getUniqueId(), player.getName());
+        
+        Leaderboard.Category category = Leaderboard.Category.WINS;
+        int page = 1;
+        for (int i = 1; i < args.length; i++) {
+            Leaderboard.Category parsed = Leaderboard.Category.fromKey(args[i]);
+            if (parsed != null) {
+                category = parsed;
+                continue;
+            }
+            try {
+                page = Math.max(1, Integer.parseInt(args[i]));
+            } catch (NumberFormatException e) {
+                player.sendMessage(ChatColor.RED + "Neznámá kategorie! Dostupné: " + ChatColor.YELLOW + categoryKeys());
+                return;
+            }
+        }
+        
+        int pages = Math.max(1, (leaderboard.size(category) + LEADERBOARD_PAGE_SIZE - 1) / LEADERBOARD_PAGE_SIZE);
+        page = Math.min(page, pages);
+        
+        player.sendMessage("");
+        for (String line : renderLeaderboardPage(leaderboard, category, page, pages)) {
+            player.sendMessage(line);
+        }
+        
+        int rank = leaderboard.getRank(category, player.getUniqueId());
+        if (rank > 0) {
+            player.sendMessage(ChatColor.YELLOW + "Tvoje pozice: " + ChatColor.WHITE + "#" + rank + 
+                             ChatColor.GRAY + " (lepší než " + 
+                             String.format("%.1f%%", leaderboard.getPercentile(category, player.getUniqueId())) + 
+                             " hráčů)");
+        } else if (category == Leaderboard.Category.WIN_RATE || category == Leaderboard.Category.AVERAGE_ATTEMPTS) {
+            player.sendMessage(ChatColor.GRAY + "Do tohoto žebříčku se dostaneš po " + leaderboard.getMinGames() + " hrách.");
+        } else {
+            player.sendMessage(ChatColor.GRAY + "Zatím nejsi v žebříčku.");
+        }
+        player.sendMessage(ChatColor.GOLD + "════════════════════════════════");
+        player.sendMessage("");
+    }
+    
+    private List<String> renderLeaderboardPage(Leaderboard leaderboard, Leaderboard.Category category, int page, int pages) {
+        String key = category.name() + ":" + page;
+        int version = leaderboard.getVersion(category);
+        RenderedPage cached = leaderboardPages.get(key);
+        if (cached != null && cached.version == version && cached.pages == pages) {
+            return cached.lines;
+        }
+        
+        List<String> lines = new ArrayList<>(LEADERBOARD_PAGE_SIZE + 2);
+        lines.add(ChatColor.GOLD + "═══════ Žebříček: " + category.getTitle() + " ═══════");
+        
+        List<Leaderboard.Entry> entries = leaderboard.getPage(category, page - 1, LEADERBOARD_PAGE_SIZE);
+        if (entries.isEmpty()) {
+            lines.add(ChatColor.GRAY + "Žebříček je zatím prázdný.");
+        }
+        int position = (page - 1) * LEADERBOARD_PAGE_SIZE;
+        for (Leaderboard.Entry entry : entries) {
+            position++;
+            lines.add(ChatColor.YELLOW + "" + position + ". " + ChatColor.WHITE + leaderboard.getName(entry.getPlayerId()) + 
+                      ChatColor.GRAY + " - " + ChatColor.GREEN + category.format(entry));
+        }
+        lines.add(ChatColor.GRAY + "Strana " + page + "/" + pages);
+        
+        leaderboardPages.put(key, new RenderedPage(version, pages, lines));
+        return lines;
+    }
+    
+    private String categoryKeys() {
+        StringBuilder keys = new StringBuilder();
+        for (Leaderboard.Category category : Leaderboard.Category.values()) {
+            if (keys.length() > 0) {
+                keys.append(", ");
+            }
+            keys.append(category.getKey());
+        }
+        return keys.toString();
     }
     
     private void handleHint(Player player) {
@@ -305,10 +438,16 @@ public class Command implements CommandExecutor {
             return;
         }
         
+        gameManager.touch(player);
         player.sendMessage(ChatColor.YELLOW + "Nápověda: První písmeno je " + 
                          ChatColor.GOLD + ChatColor.BOLD + 
                          game.getTargetWord().toUpperCase().charAt(0));
         
+        if (game.getAttempts() > 0) {
+            player.sendMessage(ChatColor.YELLOW + "Možných slov: " + ChatColor.WHITE + 
+                             game.getCandidates().getRemainingCount());
+        }
+        
         plugin.getPlayerStats(player.getUniqueId()).addHintUsed();
     }
     
@@ -320,18 +459,34 @@ public class Command implements CommandExecutor {
         
         plugin.reloadConfig();
         player.sendMessage(ChatColor.GREEN + "Konfigurace byla znovu načtena!");
+        player.sendMessage(ChatColor.YELLOW + "Načítám slovník na pozadí...");
+        plugin.reloadWordList(player);
     }
     
     private void sendHelp(Player player) {
         player.sendMessage("");
         player.sendMessage(ChatColor.GOLD + "═══════ Wordlik - Nápověda ═══════");
-        player.sendMessage(ChatColor.YELLOW + "/wordlik start" + ChatColor.WHITE + " - Začít novou hru");
+        player.sendMessage(ChatColor.YELLOW + "/wordlik start [délka]" + ChatColor.WHITE + " - Začít novou hru");
+        player.sendMessage(ChatColor.YELLOW + "/wordlik daily" + ChatColor.WHITE + " - Denní výzva");
         player.sendMessage(ChatColor.YELLOW + "/wordlik <slovo>" + ChatColor.WHITE + " - Hádat slovo");
         player.sendMessage(ChatColor.YELLOW + "/wordlik hint" + ChatColor.WHITE + " - Získat nápovědu");
         player.sendMessage(ChatColor.YELLOW + "/wordlik stop" + ChatColor.WHITE + " - Ukončit hru");
         player.sendMessage(ChatColor.YELLOW + "/wordlik stats" + ChatColor.WHITE + " - Zobrazit statistiky");
+        player.sendMessage(ChatColor.YELLOW + "/wordlik top [kategorie] [strana]" + ChatColor.WHITE + " - Žebříček");
         player.sendMessage(ChatColor.YELLOW + "/wordlik help" + ChatColor.WHITE + " - Zobrazit nápovědu");
         player.sendMessage(ChatColor.GOLD + "══════════════════════════════════");
         player.sendMessage("");
     }
+    
+    private static final class RenderedPage {
+        private final int version;
+        private final int pages;
+        private final List<String> lines;
+        
+        private RenderedPage(int version, int pages, List<String> lines) {
+            this.version = version;
+            this.pages = pages;
+            this.lines = lines;
+        }
+    }
 }
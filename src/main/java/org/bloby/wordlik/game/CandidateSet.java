@@ -0,0 +1,135 @@
+package org.bloby.wordlik.game;
+
+import org.bloby.wordlik.utils.Alphabet;
+import org.bloby.wordlik.utils.DictionaryPartition;
+import org.bloby.wordlik.utils.Feedback;
+import org.bloby.wordlik.utils.WordCode;
+import org.bloby.wordlik.utils.WordCursor;
+import org.bloby.wordlik.utils.WordIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CandidateSet {
+    
+    private final DictionaryPartition words;
+    private final WordIndex index;
+    private final long[] candidates;
+    private final int[] minCounts;
+    private final boolean[] absentLetters;
+    private int remaining;
+    
+    public CandidateSet(DictionaryPartition words) {
+        this.words = words;
+        this.index = words.getIndex();
+        this.candidates = index.newFullSet();
+        this.minCounts = new int[Alphabet.SIZE + 1];
+        this.absentLetters = new boolean[Alphabet.SIZE + 1];
+        this.remaining = words.getCount();
+    }
+    
+    public void apply(GuessResult result) {
+        if (result.getPattern() >= 0) {
+            apply(result.getGuessCode(), result.getPattern());
+        }
+    }
+    
+    public void apply(long guessCode, GuessResult.LetterStatus[] feedback) {
+        apply(guessCode, GuessResult.encode(feedback));
+    }
+    
+    public void apply(long guessCode, int pattern) {
+        int length = words.getLength();
+        
+        int remainingDigits = pattern;
+        for (int i = 0; i < length; i++) {
+            int letter = WordCode.letterAt(guessCode, i);
+            int digit = remainingDigits % 3;
+            remainingDigits /= 3;
+            
+            if (digit == Feedback.CORRECT) {
+                index.retainAt(candidates, i, letter);
+            } else {
+                index.removeAt(candidates, i, letter);
+            }
+            
+            if (digit == Feedback.ABSENT) {
+                absentLetters[letter] = true;
+            } else {
+                minCounts[letter]++;
+            }
+        }
+        
+        boolean countsNeeded = false;
+        for (int i = 0; i < length; i++) {
+            int letter = WordCode.letterAt(guessCode, i);
+            if (minCounts[letter] == 0) {
+                index.removeContaining(candidates, letter);
+            } else {
+                index.retainContaining(candidates, letter);
+                countsNeeded |= minCounts[letter] > 1 || absentLetters[letter];
+            }
+        }
+        
+        if (countsNeeded) {
+            verifyCounts(guessCode, length);
+        }
+        
+        for (int i = 0; i < length; i++) {
+            int letter = WordCode.letterAt(guessCode, i);
+            minCounts[letter] = 0;
+            absentLetters[letter] = false;
+        }
+        
+        remaining = WordIndex.count(candidates);
+    }
+    
+    private void verifyCounts(long guessCode, int length) {
+        WordCursor cursor = index.cursor(candidates);
+        int ordinal;
+        while ((ordinal = cursor.next()) >= 0) {
+            for (int i = 0; i < length; i++) {
+                int letter = WordCode.letterAt(guessCode, i);
+                int min = minCounts[letter];
+                if (min == 0 || (min == 1 && !absentLetters[letter])) {
+                    continue;
+                }
+                
+                int count = 0;
+                for (int j = 0; j < words.getLength(); j++) {
+                    if (words.letterAt(ordinal, j) == letter) {
+                        count++;
+                    }
+                }
+                
+                if (count < min || (absentLetters[letter] && count != min)) {
+                    candidates[ordinal >>> 6] &= ~(1L << ordinal);
+                    break;
+                }
+            }
+        }
+    }
+    
+    public int getRemainingCount() {
+        return remaining;
+    }
+    
+    public boolean contains(long code) {
+        int ordinal = words.indexOf(code);
+        return ordinal >= 0 && (candidates[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+    
+    public WordCursor cursor() {
+        return index.cursor(candidates);
+    }
+    
+    public List<String> getCandidates(int limit) {
+        List<String> result = new ArrayList<>(Math.min(limit, remaining));
+        WordCursor cursor = cursor();
+        int ordinal;
+        while (result.size() < limit && (ordinal = cursor.next()) >= 0) {
+            result.add(words.getWord(ordinal));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,99 @@
+package org.bloby.wordlik.game;
+
+import org.bloby.wordlik.utils.DictionaryPartition;
+import org.bloby.wordlik.utils.Feedback;
+import org.bloby.wordlik.utils.Permutation;
+import org.bloby.wordlik.utils.WordCode;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One day's shared challenge. The target is picked by {@link #pickTarget} as the day's slot in a
+ * seeded permutation of the partition, so every player gets the same word for a date and no word
+ * repeats until the whole partition has been used. Feedback is memoized per guess ordinal and shared by every daily game;
+ * racing writers store the same pattern, so the table needs no locking.
+ */
+public final class DailyChallenge {
+    
+    private static final int UNKNOWN = -1;
+    
+    private final LocalDate date;
+    private final DictionaryPartition words;
+    private final long targetCode;
+    private final int[] patterns;
+    private final Set<UUID> players;
+    
+    public DailyChallenge(LocalDate date, DictionaryPartition words, long targetCode) {
+        if (words.indexOf(targetCode) < 0) {
+            throw new IllegalArgumentException("Slovo denní výzvy není ve slovníku");
+        }
+        this.date = date;
+        this.words = words;
+        this.targetCode = targetCode;
+        this.patterns = new int[words.getCount()];
+        Arrays.fill(patterns, UNKNOWN);
+        this.players = ConcurrentHashMap.newKeySet();
+    }
+    
+    public static long pickTarget(LocalDate date, DictionaryPartition words, long seed) {
+        int count = words.getCount();
+        long day = date.toEpochDay();
+        Permutation order = new Permutation(count, seed ^ WordCode.hash(Math.floorDiv(day, count)));
+        return words.getCode(order.get(Math.floorMod(day, count)));
+    }
+    
+    public int score(int ordinal) {
+        int pattern = patterns[ordinal];
+        if (pattern == UNKNOWN) {
+            pattern = Feedback.score(words.getCode(ordinal), targetCode, words.getLength(), Feedback.newLetterCounts());
+            patterns[ordinal] = pattern;
+        }
+        return pattern;
+    }
+    
+    public boolean join(UUID player) {
+        return players.add(player);
+    }
+    
+    /**
+     * Marks players as having played without starting a game, when the challenge is rebuilt or
+     * restored from disk.
+     */
+    public void restore(Collection<UUID> players) {
+        this.players.addAll(players);
+    }
+    
+    public Set<UUID> getPlayers() {
+        return Collections.unmodifiableSet(players);
+    }
+    
+    public boolean hasPlayed(UUID player) {
+        return players.contains(player);
+    }
+    
+    public int getPlayerCount() {
+        return players.size();
+    }
+    
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public DictionaryPartition getPartition() {
+        return words;
+    }
+    
+    public long getTargetCode() {
+        return targetCode;
+    }
+    
+    public String getTargetWord() {
+        return WordCode.decode(targetCode);
+    }
+}
@@ -0,0 +1,104 @@
+package org.bloby.wordlik.game;
+
+import org.bloby.wordlik.utils.WordCode;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The current date's daily target and the players who have already played it, kept in
+ * {@code daily.yml}, so a restart or reload neither changes the word nor lets them play it again.
+ * The file is rewritten on {@link #save(DailyChallenge)} only when something changed.
+ */
+public class DailyStore {
+    
+    private final File file;
+    private LocalDate savedDate;
+    private long savedTarget;
+    private int savedCount;
+    
+    public DailyStore(File file) {
+        this.file = file;
+        this.savedCount = -1;
+    }
+    
+    /**
+     * The target stored for {@code date}, or {@link WordCode#INVALID} if there is none.
+     */
+    public synchronized long loadTarget(LocalDate date) {
+        YamlConfiguration config = read(date);
+        String target = config != null ? config.getString("target") : null;
+        return target != null ? WordCode.encode(target) : WordCode.INVALID;
+    }
+    
+    public synchronized Set<UUID> loadPlayers(LocalDate date) {
+        Set<UUID> players = new HashSet<>();
+        YamlConfiguration config = read(date);
+        if (config == null) {
+            return players;
+        }
+        
+        for (String player : config.getStringList("players")) {
+            try {
+                players.add(UUID.fromString(player));
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+        }
+        return players;
+    }
+    
+    private YamlConfiguration read(LocalDate date) {
+        if (!file.exists()) {
+            return null;
+        }
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+        return date.toString().equals(config.getString("date")) ? config : null;
+    }
+    
+    public synchronized void save(DailyChallenge challenge) throws IOException {
+        Set<UUID> players = challenge.getPlayers();
+        if (challenge.getDate().equals(savedDate) && challenge.getTargetCode() == savedTarget
+                && players.size() == savedCount) {
+            return;
+        }
+        
+        List<String> ids = new ArrayList<>(players.size());
+        for (UUID player : players) {
+            ids.add(player.toString());
+        }
+        
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("date", challenge.getDate().toString());
+        config.set("target", challenge.getTargetWord());
+        config.set("players", ids);
+        Path temp = new File(file.getPath() + ".tmp").toPath();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer out = ByteBuffer.wrap(config.saveToString().getBytes(StandardCharsets.UTF_8));
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        
+        savedDate = challenge.getDate();
+        savedTarget = challenge.getTargetCode();
+        savedCount = ids.size();
+    }
+}
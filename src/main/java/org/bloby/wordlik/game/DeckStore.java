@@ -0,0 +1,86 @@
+package org.bloby.wordlik.game;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player word decks, one per word length, kept in {@code decks.yml}. Decks are read from the
+ * file only when a player first needs one and written back on {@link #save()}, through a temporary
+ * file that replaces the old one atomically. A stored deck whose size no longer matches the
+ * dictionary is discarded and dealt afresh.
+ */
+public class DeckStore {
+    
+    private final File file;
+    private final YamlConfiguration config;
+    private final Map<String, WordDeck> decks;
+    
+    public DeckStore(File file) {
+        this.file = file;
+        this.config = YamlConfiguration.loadConfiguration(file);
+        this.decks = new ConcurrentHashMap<>();
+    }
+    
+    public WordDeck getDeck(UUID uuid, int wordLength, int size) {
+        return decks.compute(uuid + "." + wordLength,
+                (key, deck) -> deck != null && deck.getSize() == size ? deck : load(key, size));
+    }
+    
+    public WordDeck getLoadedDeck(UUID uuid, int wordLength) {
+        return decks.get(uuid + "." + wordLength);
+    }
+    
+    private synchronized WordDeck load(String key, int size) {
+        ConfigurationSection section = config.getConfigurationSection(key);
+        if (section != null && section.getInt("size", -1) == size) {
+            return new WordDeck(size, section.getLong("seed", 0), section.getInt("position", 0));
+        }
+        return new WordDeck(size);
+    }
+    
+    private synchronized void store(String key, WordDeck deck) {
+        config.set(key + ".size", deck.getSize());
+        config.set(key + ".seed", deck.getSeed());
+        config.set(key + ".position", deck.getPosition());
+    }
+    
+    public synchronized void save() throws IOException {
+        for (Map.Entry<String, WordDeck> entry : decks.entrySet()) {
+            store(entry.getKey(), entry.getValue());
+        }
+        Path temp = new File(file.getPath() + ".tmp").toPath();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer out = ByteBuffer.wrap(config.saveToString().getBytes(StandardCharsets.UTF_8));
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    public void unload(UUID uuid) {
+        String prefix = uuid + ".";
+        decks.entrySet().removeIf(entry -> {
+            if (!entry.getKey().startsWith(prefix)) {
+                return false;
+            }
+            store(entry.getKey(), entry.getValue());
+            return true;
+        });
+    }
+}
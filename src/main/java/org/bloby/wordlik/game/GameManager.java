@@ -1,195 +1,293 @@
 package org.bloby.wordlik.game;
 
 import org.bloby.wordlik.Wordlik;
+import org.bloby.wordlik.utils.DictionaryPartition;
+import org.bloby.wordlik.utils.WordCode;
 import org.bloby.wordlik.utils.WordList;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
 
 public class GameManager {
     
     private final Wordlik plugin;
     private final WordList wordList;
-    private final Map<UUID, WordleGame> activeGames;
-    private final Map<UUID, Long> gameStartTimes;
-    private final Map<UUID, Integer> playerAttempts;
-    private final Set<UUID> pausedGames;
-    private final Map<UUID, List<String>> gameHistory;
-    private int totalGamesPlayed;
-    private int totalGamesWon;
-    private long totalGameTime;
-    private final Map<String, Integer> wordFrequency;
-    private final Random random;
+    private final Map<UUID, GameSession> sessions;
+    private final SessionExpiryQueue expiry;
+    private final DeckStore decks;
+    private final GameMetrics metrics;
+    private final AtomicReference<DailyChallenge> daily;
+    private final DailyStore dailyPlayers;
     
     public GameManager(Wordlik plugin, WordList wordList) {
         this.plugin = plugin;
         this.wordList = wordList;
-        this.activeGames = new ConcurrentHashMap<>();
-        this.gameStartTimes = new ConcurrentHashMap<>();
-        this.playerAttempts = new ConcurrentHashMap<>();
-        this.pausedGames = ConcurrentHashMap.newKeySet();
-        this.gameHistory = new ConcurrentHashMap<>();
-        this.totalGamesPlayed = 0;
-        this.totalGamesWon = 0;
-        this.totalGameTime = 0;
-        this.wordFrequency = new ConcurrentHashMap<>();
-        this.random = new Random();
+        this.sessions = new ConcurrentHashMap<>();
+        this.expiry = new SessionExpiryQueue();
+        this.decks = new DeckStore(new File(plugin.getDataFolder(), "decks.yml"));
+        this.metrics = new GameMetrics();
+        this.daily = new AtomicReference<>();
+        this.dailyPlayers = new DailyStore(new File(plugin.getDataFolder(), "daily.yml"));
         
         startGameMonitor();
         startStatisticsLogger();
     }
     
-    public void startGame(Player player) {
+    public boolean startGame(Player player) {
+        return startGame(player, wordList.getDefaultLength());
+    }
+    
+    public boolean startGame(Player player, int wordLength) {
         UUID uuid = player.getUniqueId();
         
-        if (activeGames.containsKey(uuid)) {
-            return;
+        if (sessions.containsKey(uuid)) {
+            return false;
         }
         
-        String targetWord = selectTargetWord(player);
-        WordleGame game = new WordleGame(targetWord, wordList);
+        DictionaryPartition words = wordList.getPartition(wordLength);
+        if (words == null) {
+            return false;
+        }
         
-        activeGames.put(uuid, game);
-        gameStartTimes.put(uuid, System.currentTimeMillis());
-        playerAttempts.put(uuid, 0);
+        long targetCode = words.getCode(decks.getDeck(uuid, wordLength, words.getCount()).next());
+        String targetWord = WordCode.decode(targetCode);
+        WordleGame game = new WordleGame(words, targetCode, 6);
         
-        if (!gameHistory.containsKey(uuid)) {
-            gameHistory.put(uuid, new ArrayList<>());
+        GameSession session = new GameSession(uuid, game);
+        if (sessions.putIfAbsent(uuid, session) != null) {
+            return false;
         }
-        gameHistory.get(uuid).add(targetWord);
+        expiry.schedule(session, session.getLastActivity() + getTimeoutMillis());
         
-        totalGamesPlayed++;
-        wordFrequency.put(targetWord, wordFrequency.getOrDefault(targetWord, 0) + 1);
+        metrics.recordGameStarted(targetWord);
         
         if (plugin.isDebugMode()) {
             plugin.getLogger().info("Hráč " + player.getName() + " začal novou hru. Slovo: " + targetWord);
         }
+        return true;
     }
     
-    public void endGame(Player player) {
+    public boolean startDailyGame(Player player) {
         UUID uuid = player.getUniqueId();
         
-        WordleGame game = activeGames.get(uuid);
-        if (game != null) {
-            Long startTime = gameStartTimes.get(uuid);
-            if (startTime != null) {
-                long duration = System.currentTimeMillis() - startTime;
-                totalGameTime += duration;
-                
-                if (game.isFinished() && game.getAttempts() <= game.getMaxAttempts()) {
-                    totalGamesWon++;
+        if (sessions.containsKey(uuid)) {
+            return false;
+        }
+        
+        DailyChallenge challenge = getDailyChallenge();
+        if (challenge == null || challenge.hasPlayed(uuid)) {
+            return false;
+        }
+        
+        GameSession session = new GameSession(uuid, new WordleGame(challenge, 6));
+        if (sessions.putIfAbsent(uuid, session) != null) {
+            return false;
+        }
+        if (!challenge.join(uuid)) {
+            sessions.remove(uuid, session);
+            return false;
+        }
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                saveDailyPlayers();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Nelze uložit hráče denní výzvy", e);
+            }
+        });
+        expiry.schedule(session, session.getLastActivity() + getTimeoutMillis());
+        
+        metrics.recordGameStarted(challenge.getTargetWord());
+        
+        if (plugin.isDebugMode()) {
+            plugin.getLogger().info("Hráč " + player.getName() + " začal denní výzvu " + challenge.getDate());
+        }
+        return true;
+    }
+    
+    public DailyChallenge getDailyChallenge() {
+        LocalDate today = LocalDate.now();
+        DictionaryPartition words = wordList.getPartition();
+        
+        DailyChallenge current = daily.get();
+        while (current == null || !current.getDate().equals(today) || current.getPartition() != words) {
+            if (words == null) {
+                return null;
+            }
+            
+            boolean sameDay = current != null && current.getDate().equals(today);
+            long target = sameDay ? current.getTargetCode() : dailyPlayers.loadTarget(today);
+            if (words.indexOf(target) < 0) {
+                if (target != WordCode.INVALID) {
+                    plugin.getLogger().warning("Slovo dnešní výzvy už ve slovníku není, vybírám nové");
+                }
+                target = DailyChallenge.pickTarget(today, words, plugin.getConfig().getLong("daily.seed", 0L));
+            }
+            
+            DailyChallenge next = new DailyChallenge(today, words, target);
+            next.restore(sameDay ? current.getPlayers() : dailyPlayers.loadPlayers(today));
+            if (daily.compareAndSet(current, next)) {
+                if (sameDay) {
+                    next.restore(current.getPlayers());
                 }
+                return next;
             }
+            current = daily.get();
         }
+        return current;
+    }
+    
+    public boolean hasPlayedDaily(Player player) {
+        DailyChallenge challenge = getDailyChallenge();
+        return challenge != null && challenge.hasPlayed(player.getUniqueId());
+    }
+    
+    public void endGame(Player player) {
+        UUID uuid = player.getUniqueId();
         
-        activeGames.remove(uuid);
-        gameStartTimes.remove(uuid);
-        playerAttempts.remove(uuid);
-        pausedGames.remove(uuid);
+        GameSession session = sessions.remove(uuid);
+        if (session != null) {
+            metrics.recordGameEnded(session.getDuration(), session.getGame().hasWon());
+        }
         
         if (plugin.isDebugMode()) {
             plugin.getLogger().info("Hráč " + player.getName() + " ukončil hru");
         }
     }
     
+    public GameSession getSession(Player player) {
+        return sessions.get(player.getUniqueId());
+    }
+    
     public WordleGame getGame(Player player) {
-        return activeGames.get(player.getUniqueId());
+        GameSession session = sessions.get(player.getUniqueId());
+        return session != null ? session.getGame() : null;
     }
     
     public boolean hasActiveGame(Player player) {
-        return activeGames.containsKey(player.getUniqueId());
+        return sessions.containsKey(player.getUniqueId());
     }
     
     public void pauseGame(Player player) {
-        UUID uuid = player.getUniqueId();
-        if (activeGames.containsKey(uuid)) {
-            pausedGames.add(uuid);
+        GameSession session = sessions.get(player.getUniqueId());
+        if (session != null) {
+            session.setPaused(true);
         }
     }
     
     public void resumeGame(Player player) {
-        pausedGames.remove(player.getUniqueId());
+        GameSession session = sessions.get(player.getUniqueId());
+        if (session != null) {
+            session.setPaused(false);
+            expiry.schedule(session, session.getLastActivity() + getTimeoutMillis());
+        }
     }
     
     public boolean isGamePaused(Player player) {
-        return pausedGames.contains(player.getUniqueId());
+        GameSession session = sessions.get(player.getUniqueId());
+        return session != null && session.isPaused();
     }
     
     public void clearAllGames() {
         if (plugin.isDebugMode()) {
-            plugin.getLogger().info("Ukončování všech aktivních her: " + activeGames.size());
+            plugin.getLogger().info("Ukončování všech aktivních her: " + sessions.size());
         }
         
-        activeGames.clear();
-        gameStartTimes.clear();
-        playerAttempts.clear();
-        pausedGames.clear();
+        sessions.clear();
+        expiry.clear();
     }
     
     public int getActiveGamesCount() {
-        return activeGames.size();
+        return sessions.size();
     }
     
     public long getGameDuration(Player player) {
-        Long startTime = gameStartTimes.get(player.getUniqueId());
-        if (startTime == null) {
-            return 0;
-        }
-        return System.currentTimeMillis() - startTime;
+        GameSession session = sessions.get(player.getUniqueId());
+        return session != null ? session.getDuration() : 0;
     }
     
     public List<String> getPlayerHistory(Player player) {
-        return gameHistory.getOrDefault(player.getUniqueId(), new ArrayList<>());
+        DictionaryPartition words = wordList.getPartition();
+        WordDeck deck = decks.getLoadedDeck(player.getUniqueId(), words.getLength());
+        if (deck == null || deck.getSize() != words.getCount()) {
+            return new ArrayList<>();
+        }
+        
+        int dealt = deck.getPosition();
+        List<String> history = new ArrayList<>(dealt);
+        for (int i = 0; i < dealt; i++) {
+            history.add(words.getWord(deck.dealt(i)));
+        }
+        return history;
+    }
+    
+    public void saveDecks() throws IOException {
+        decks.save();
+    }
+    
+    public void saveDailyPlayers() throws IOException {
+        DailyChallenge challenge = daily.get();
+        if (challenge != null) {
+            dailyPlayers.save(challenge);
+        }
+    }
+    
+    public GameMetrics getMetrics() {
+        return metrics;
     }
     
     public int getTotalGamesPlayed() {
-        return totalGamesPlayed;
+        return (int) metrics.snapshot().getGamesPlayed();
     }
     
     public int getTotalGamesWon() {
-        return totalGamesWon;
+        return (int) metrics.snapshot().getGamesWon();
     }
     
     public double getGlobalWinRate() {
-        return totalGamesPlayed > 0 ? (double) totalGamesWon / totalGamesPlayed * 100 : 0.0;
+        return metrics.snapshot().getWinRate();
     }
     
     public long getAverageGameTime() {
-        return totalGamesPlayed > 0 ? totalGameTime / totalGamesPlayed : 0;
+        return metrics.snapshot().getAverageGameTime();
     }
     
     public Map<String, Integer> getWordFrequency() {
-        return new HashMap<>(wordFrequency);
+        return metrics.getWordFrequency();
     }
     
     public List<UUID> getActivePlayers() {
-        return new ArrayList<>(activeGames.keySet());
+        return new ArrayList<>(sessions.keySet());
     }
     
-    public void recordAttempt(Player player) {
-        UUID uuid = player.getUniqueId();
-        playerAttempts.put(uuid, playerAttempts.getOrDefault(uuid, 0) + 1);
+    public void touch(Player player) {
+        GameSession session = sessions.get(player.getUniqueId());
+        if (session != null) {
+            session.touch();
+        }
     }
     
-    public int getPlayerAttempts(Player player) {
-        return playerAttempts.getOrDefault(player.getUniqueId(), 0);
+    public long getTimeoutMillis() {
+        return plugin.getConfig().getInt("game.timeout-minutes", 60) * 60000L;
     }
     
-    private String selectTargetWord(Player player) {
-        List<String> recentWords = getPlayerHistory(player);
-        String word;
-        int attempts = 0;
-        int maxAttempts = 50;
-        
-        do {
-            word = wordList.getRandomWord();
-            attempts++;
-        } while (recentWords.contains(word) && attempts < maxAttempts);
-        
-        return word;
+    public void recordAttempt(Player player) {
+        GameSession session = sessions.get(player.getUniqueId());
+        if (session != null) {
+            session.recordAttempt();
+        }
+    }
+    
+    public int getPlayerAttempts(Player player) {
+        GameSession session = sessions.get(player.getUniqueId());
+        return session != null ? session.getAttempts() : 0;
     }
     
     private void startGameMonitor() {
@@ -197,34 +295,38 @@ public class GameManager {
             @Override
             public void run() {
                 long currentTime = System.currentTimeMillis();
-                List<UUID> toRemove = new ArrayList<>();
+                long timeout = getTimeoutMillis();
+                int expired = 0;
                 
-                for (Map.Entry<UUID, Long> entry : gameStartTimes.entrySet()) {
-                    long duration = currentTime - entry.getValue();
+                GameSession session;
+                while ((session = expiry.pollDue(currentTime)) != null) {
+                    if (sessions.get(session.getPlayerId()) != session || session.isPaused()) {
+                        continue;
+                    }
                     
-                    if (duration > 3600000) {
-                        toRemove.add(entry.getKey());
+                    long deadline = session.getLastActivity() + timeout;
+                    if (deadline > currentTime) {
+                        expiry.schedule(session, deadline);
+                        continue;
                     }
-                }
-                
-                for (UUID uuid : toRemove) {
-                    Player player = Bukkit.getPlayer(uuid);
+                    
+                    if (!sessions.remove(session.getPlayerId(), session)) {
+                        continue;
+                    }
+                    
+                    expired++;
+                    metrics.recordGameEnded(session.getDuration(), false);
+                    Player player = Bukkit.getPlayer(session.getPlayerId());
                     if (player != null) {
-                        endGame(player);
-                        player.sendMessage("§cTvoje hra byla automaticky ukončena po 1 hodině nečinnosti.");
-                    } else {
-                        activeGames.remove(uuid);
-                        gameStartTimes.remove(uuid);
-                        playerAttempts.remove(uuid);
-                        pausedGames.remove(uuid);
+                        player.sendMessage("§cTvoje hra byla automaticky ukončena po " + (timeout / 60000) + " min nečinnosti.");
                     }
                 }
                 
-                if (plugin.isDebugMode() && !toRemove.isEmpty()) {
-                    plugin.getLogger().info("Automaticky ukončeno " + toRemove.size() + " neaktivních her");
+                if (plugin.isDebugMode() && expired > 0) {
+                    plugin.getLogger().info("Automaticky ukončeno " + expired + " neaktivních her");
                 }
             }
-        }.runTaskTimer(plugin, 20L * 60, 20L * 60);
+        }.runTaskTimer(plugin, 20L, 20L);
     }
     
     private void startStatisticsLogger() {
@@ -232,12 +334,13 @@ public class GameManager {
             @Override
             public void run() {
                 if (plugin.isDebugMode()) {
+                    GameMetrics.Snapshot snapshot = metrics.snapshot();
                     plugin.getLogger().info("=== Statistiky Game Manageru ===");
-                    plugin.getLogger().info("Aktivní hry: " + activeGames.size());
-                    plugin.getLogger().info("Celkem her: " + totalGamesPlayed);
-                    plugin.getLogger().info("Výher: " + totalGamesWon);
-                    plugin.getLogger().info("Win rate: " + String.format("%.2f%%", getGlobalWinRate()));
-                    plugin.getLogger().info("Průměrný čas hry: " + (getAverageGameTime() / 1000) + "s");
+                    plugin.getLogger().info("Aktivní hry: " + sessions.size());
+                    plugin.getLogger().info("Celkem her: " + snapshot.getGamesPlayed());
+                    plugin.getLogger().info("Výher: " + snapshot.getGamesWon());
+                    plugin.getLogger().info("Win rate: " + String.format("%.2f%%", snapshot.getWinRate()));
+                    plugin.getLogger().info("Průměrný čas hry: " + (snapshot.getAverageGameTime() / 1000) + "s");
                     plugin.getLogger().info("================================");
                 }
             }
@@ -245,25 +348,22 @@ public class GameManager {
     }
     
     public void resetStatistics() {
-        totalGamesPlayed = 0;
-        totalGamesWon = 0;
-        totalGameTime = 0;
-        wordFrequency.clear();
+        metrics.reset();
         
         plugin.getLogger().info("Globální statistiky byly resetovány");
     }
     
     public Map<String, Object> getGameInfo(Player player) {
         Map<String, Object> info = new HashMap<>();
-        UUID uuid = player.getUniqueId();
+        GameSession session = sessions.get(player.getUniqueId());
         
-        info.put("hasActiveGame", hasActiveGame(player));
-        info.put("isPaused", isGamePaused(player));
-        info.put("duration", getGameDuration(player));
-        info.put("attempts", getPlayerAttempts(player));
+        info.put("hasActiveGame", session != null);
+        info.put("isPaused", session != null && session.isPaused());
+        info.put("duration", session != null ? session.getDuration() : 0L);
+        info.put("attempts", session != null ? session.getAttempts() : 0);
         
-        WordleGame game = getGame(player);
-        if (game != null) {
+        if (session != null) {
+            WordleGame game = session.getGame();
             info.put("maxAttempts", game.getMaxAttempts());
             info.put("remainingAttempts", game.getMaxAttempts() - game.getAttempts());
             info.put("guesses", game.getGuesses());
@@ -278,7 +378,7 @@ public class GameManager {
             return false;
         }
         
-        if (activeGames.size() >= 1000) {
+        if (sessions.size() >= 1000) {
             return false;
         }
         
@@ -286,34 +386,28 @@ public class GameManager {
     }
     
     public String getRandomUnusedWord(Player player) {
-        List<String> history = getPlayerHistory(player);
-        List<String> allWords = wordList.getAllWords();
-        List<String> unused = new ArrayList<>();
-        
-        for (String word : allWords) {
-            if (!history.contains(word)) {
-                unused.add(word);
-            }
-        }
-        
-        if (unused.isEmpty()) {
-            return wordList.getRandomWord();
-        }
-        
-        return unused.get(random.nextInt(unused.size()));
+        DictionaryPartition words = wordList.getPartition();
+        WordDeck deck = decks.getDeck(player.getUniqueId(), words.getLength(), words.getCount());
+        return words.getWord(deck.peek());
     }
     
     public void cleanupPlayer(UUID uuid) {
-        activeGames.remove(uuid);
-        gameStartTimes.remove(uuid);
-        playerAttempts.remove(uuid);
-        pausedGames.remove(uuid);
+        sessions.remove(uuid);
+        unloadDecks(uuid);
+    }
+    
+    /**
+     * Writes the player's decks back to the store's configuration and drops them from memory, so
+     * auto-saves only carry decks of players who are online.
+     */
+    public void unloadDecks(UUID uuid) {
+        decks.unload(uuid);
     }
     
     public int countGamesInProgress() {
         int count = 0;
-        for (WordleGame game : activeGames.values()) {
-            if (!game.isFinished()) {
+        for (GameSession session : sessions.values()) {
+            if (!session.getGame().isFinished()) {
                 count++;
             }
         }
@@ -322,8 +416,8 @@ public class GameManager {
     
     public int countFinishedGames() {
         int count = 0;
-        for (WordleGame game : activeGames.values()) {
-            if (game.isFinished()) {
+        for (GameSession session : sessions.values()) {
+            if (session.getGame().isFinished()) {
                 count++;
             }
         }
@@ -331,9 +425,10 @@ public class GameManager {
     }
     
     public List<Map.Entry<String, Integer>> getMostPlayedWords(int limit) {
-        return wordFrequency.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .limit(limit)
-                .toList();
+        List<Map.Entry<String, Integer>> top = new ArrayList<>(limit);
+        for (Map.Entry<String, Long> entry : metrics.getMostPlayedWords(limit)) {
+            top.add(Map.entry(entry.getKey(), entry.getValue().intValue()));
+        }
+        return top;
     }
 }
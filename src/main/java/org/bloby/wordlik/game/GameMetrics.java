@@ -0,0 +1,105 @@
+package org.bloby.wordlik.game;
+
+import org.bloby.wordlik.utils.SpaceSaving;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Global game counters on striped adders, so recording a game never contends with other
+ * recorders or with readers. A {@link Snapshot} reads wins before games played and games played
+ * is counted when a game starts, so a snapshot never shows more wins than games. Word popularity
+ * is tracked by a fixed-size {@link SpaceSaving} sketch, so its memory does not grow with the
+ * dictionary.
+ */
+public class GameMetrics {
+    
+    private final LongAdder gamesPlayed;
+    private final LongAdder gamesWon;
+    private final LongAdder totalGameTime;
+    private final SpaceSaving<String> wordFrequency;
+    
+    public GameMetrics() {
+        this(64);
+    }
+    
+    public GameMetrics(int trackedWords) {
+        this.gamesPlayed = new LongAdder();
+        this.gamesWon = new LongAdder();
+        this.totalGameTime = new LongAdder();
+        this.wordFrequency = new SpaceSaving<>(trackedWords);
+    }
+    
+    public void recordGameStarted(String targetWord) {
+        gamesPlayed.increment();
+        wordFrequency.offer(targetWord);
+    }
+    
+    public void recordGameEnded(long duration, boolean won) {
+        totalGameTime.add(duration);
+        if (won) {
+            gamesWon.increment();
+        }
+    }
+    
+    public Snapshot snapshot() {
+        long won = gamesWon.sum();
+        long time = totalGameTime.sum();
+        long played = gamesPlayed.sum();
+        return new Snapshot(played, won, time);
+    }
+    
+    public List<Map.Entry<String, Long>> getMostPlayedWords(int limit) {
+        return wordFrequency.top(limit);
+    }
+    
+    public Map<String, Integer> getWordFrequency() {
+        List<Map.Entry<String, Long>> top = wordFrequency.top(wordFrequency.capacity());
+        Map<String, Integer> frequency = new HashMap<>(top.size() * 2);
+        for (Map.Entry<String, Long> entry : top) {
+            frequency.put(entry.getKey(), entry.getValue().intValue());
+        }
+        return frequency;
+    }
+    
+    public void reset() {
+        gamesPlayed.reset();
+        gamesWon.reset();
+        totalGameTime.reset();
+        wordFrequency.clear();
+    }
+    
+    public static final class Snapshot {
+        private final long gamesPlayed;
+        private final long gamesWon;
+        private final long totalGameTime;
+        
+        private Snapshot(long gamesPlayed, long gamesWon, long totalGameTime) {
+            this.gamesPlayed = gamesPlayed;
+            this.gamesWon = gamesWon;
+            this.totalGameTime = totalGameTime;
+        }
+        
+        public long getGamesPlayed() {
+            return gamesPlayed;
+        }
+        
+        public long getGamesWon() {
+            return gamesWon;
+        }
+        
+        public long getTotalGameTime() {
+            return totalGameTime;
+        }
+        
+        public double getWinRate() {
+            return gamesPlayed > 0 ? (double) gamesWon / gamesPlayed * 100 : 0.0;
+        }
+        
+        public long getAverageGameTime() {
+            return gamesPlayed > 0 ? totalGameTime / gamesPlayed : 0;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.bloby.wordlik.game;
+
+import java.util.UUID;
+
+public class GameSession {
+    
+    private final UUID playerId;
+    private final WordleGame game;
+    private final long startTime;
+    private volatile int attempts;
+    private volatile boolean paused;
+    private volatile long lastActivity;
+    boolean queued;
+    
+    public GameSession(UUID playerId, WordleGame game) {
+        this.playerId = playerId;
+        this.game = game;
+        this.startTime = System.currentTimeMillis();
+        this.attempts = 0;
+        this.paused = false;
+        this.lastActivity = startTime;
+    }
+    
+    public UUID getPlayerId() {
+        return playerId;
+    }
+    
+    public WordleGame getGame() {
+        return game;
+    }
+    
+    public long getStartTime() {
+        return startTime;
+    }
+    
+    public long getDuration() {
+        return System.currentTimeMillis() - startTime;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void recordAttempt() {
+        attempts++;
+        touch();
+    }
+    
+    public long getLastActivity() {
+        return lastActivity;
+    }
+    
+    public void touch() {
+        lastActivity = System.currentTimeMillis();
+    }
+    
+    public boolean isPaused() {
+        return paused;
+    }
+    
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+        touch();
+    }
+}
@@ -1,6 +1,13 @@
 package org.bloby.wordlik.game;
 
+import org.bloby.wordlik.utils.Alphabet;
+import org.bloby.wordlik.utils.Feedback;
+import org.bloby.wordlik.utils.WordCode;
+
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,107 +32,145 @@ public class GuessResult {
         UNKNOWN
     }
     
-    private final String guess;
+    private static final LetterStatus[] DIGIT_STATUS = {
+        LetterStatus.ABSENT,
+        LetterStatus.PRESENT,
+        LetterStatus.CORRECT
+    };
+    
+    private static final Map<Status, GuessResult> REJECTED = new EnumMap<>(Status.class);
+    
+    static {
+        for (Status status : Status.values()) {
+            REJECTED.put(status, new GuessResult(WordCode.INVALID, status, -1, 0, 0, 0, WordCode.INVALID, 0));
+        }
+    }
+    
+    private final long guessCode;
+    private final long targetCode;
     private final Status status;
-    private final LetterStatus[] feedback;
+    private final int pattern;
+    private final int length;
     private final int attemptNumber;
     private final int remainingAttempts;
     private final long timestamp;
-    private final Map<Character, LetterStatus> letterSummary;
-    private final List<Integer> correctPositions;
-    private final List<Integer> presentPositions;
-    private final List<Integer> absentPositions;
-    private final String targetWord;
-    private final boolean isWinningGuess;
-    private final double accuracy;
     
     public GuessResult(String guess, Status status, LetterStatus[] feedback) {
         this(guess, status, feedback, 0, 0, null);
     }
     
     public GuessResult(String guess, Status status, LetterStatus[] feedback, int attemptNumber, int remainingAttempts, String targetWord) {
-        this.guess = guess;
+        this(encodeWord(guess), status, feedback != null ? encode(feedback) : -1, feedback != null ? feedback.length : 0,
+             attemptNumber, remainingAttempts, encodeWord(targetWord), System.currentTimeMillis());
+    }
+    
+    public GuessResult(long guessCode, Status status, int pattern, int length, int attemptNumber, int remainingAttempts, long targetCode) {
+        this(guessCode, status, pattern, length, attemptNumber, remainingAttempts, targetCode, System.currentTimeMillis());
+    }
+    
+    GuessResult(long guessCode, Status status, int pattern, int length, int attemptNumber, int remainingAttempts,
+                long targetCode, long timestamp) {
+        this.guessCode = guessCode;
+        this.targetCode = targetCode;
         this.status = status;
-        this.feedback = feedback;
+        this.pattern = pattern;
+        this.length = length;
         this.attemptNumber = attemptNumber;
         this.remainingAttempts = remainingAttempts;
-        this.timestamp = System.currentTimeMillis();
-        this.targetWord = targetWord;
-        this.isWinningGuess = status == Status.CORRECT;
-        this.letterSummary = new HashMap<>();
-        this.correctPositions = new ArrayList<>();
-        this.presentPositions = new ArrayList<>();
-        this.absentPositions = new ArrayList<>();
-        
-        if (feedback != null) {
-            analyzeFeedback();
-            this.accuracy = calculateAccuracy();
-        } else {
-            this.accuracy = 0.0;
+        this.timestamp = timestamp;
+    }
+    
+    /**
+     * Shared result for a guess that was turned away before scoring. It carries no word, no
+     * feedback and no timestamp.
+     */
+    public static GuessResult rejected(Status status) {
+        return REJECTED.get(status);
+    }
+    
+    /**
+     * Result for a guess that was turned away before scoring, keeping the submitted word but no
+     * feedback and no timestamp.
+     */
+    public static GuessResult rejected(Status status, long guessCode) {
+        if (guessCode == WordCode.INVALID) {
+            return REJECTED.get(status);
         }
+        return new GuessResult(guessCode, status, -1, 0, 0, 0, WordCode.INVALID, 0);
+    }
+    
+    private static long encodeWord(String word) {
+        return word != null ? WordCode.encode(word) : WordCode.INVALID;
     }
     
-    private void analyzeFeedback() {
-        if (feedback == null || guess == null) {
-            return;
+    public static LetterStatus statusOf(int pattern, int position) {
+        return DIGIT_STATUS[Feedback.digit(pattern, position)];
+    }
+    
+    public static LetterStatus[] decode(int pattern, int length) {
+        LetterStatus[] feedback = new LetterStatus[length];
+        for (int i = 0; i < length; i++) {
+            feedback[i] = DIGIT_STATUS[pattern % 3];
+            pattern /= 3;
         }
-        
-        char[] letters = guess.toCharArray();
-        
-        for (int i = 0; i < feedback.length && i < letters.length; i++) {
-            char letter = letters[i];
-            LetterStatus currentStatus = feedback[i];
-            
-            LetterStatus existingStatus = letterSummary.get(letter);
-            if (existingStatus == null || shouldUpdateStatus(existingStatus, currentStatus)) {
-                letterSummary.put(letter, currentStatus);
-            }
-            
-            switch (currentStatus) {
+        return feedback;
+    }
+    
+    public static int encode(LetterStatus[] feedback) {
+        int pattern = 0;
+        for (int i = feedback.length - 1; i >= 0; i--) {
+            int digit;
+            switch (feedback[i]) {
                 case CORRECT:
-                    correctPositions.add(i);
+                    digit = Feedback.CORRECT;
                     break;
                 case PRESENT:
-                    presentPositions.add(i);
+                    digit = Feedback.PRESENT;
                     break;
-                case ABSENT:
-                    absentPositions.add(i);
+                default:
+                    digit = Feedback.ABSENT;
                     break;
             }
+            pattern = pattern * 3 + digit;
         }
+        return pattern;
     }
     
-    private boolean shouldUpdateStatus(LetterStatus existing, LetterStatus newStatus) {
-        if (newStatus == LetterStatus.CORRECT) {
-            return true;
+    private int positionMask(int digit) {
+        if (pattern < 0) {
+            return 0;
         }
-        if (newStatus == LetterStatus.PRESENT && existing != LetterStatus.CORRECT) {
-            return true;
+        
+        int mask = 0;
+        int remaining = pattern;
+        for (int i = 0; i < length; i++) {
+            if (remaining % 3 == digit) {
+                mask |= 1 << i;
+            }
+            remaining /= 3;
         }
-        return false;
+        return mask;
     }
     
-    private double calculateAccuracy() {
-        if (feedback == null || feedback.length == 0) {
-            return 0.0;
-        }
-        
-        int correctCount = 0;
-        int presentCount = 0;
-        
-        for (LetterStatus status : feedback) {
-            if (status == LetterStatus.CORRECT) {
-                correctCount++;
-            } else if (status == LetterStatus.PRESENT) {
-                presentCount++;
+    private List<Character> lettersAt(int mask) {
+        List<Character> letters = new ArrayList<>(Integer.bitCount(mask));
+        for (int i = 0; i < length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                letters.add(Alphabet.letter(WordCode.letterAt(guessCode, i)));
             }
         }
-        
-        return ((correctCount * 1.0) + (presentCount * 0.5)) / feedback.length * 100;
+        return letters;
     }
     
+    /**
+     * The guessed word, or {@code null} if the submitted text could not be encoded as a word.
+     */
     public String getGuess() {
-        return guess;
+        return guessCode != WordCode.INVALID ? WordCode.decode(guessCode) : null;
+    }
+    
+    public long getGuessCode() {
+        return guessCode;
     }
     
     public Status getStatus() {
@@ -133,7 +178,15 @@ public class GuessResult {
     }
     
     public LetterStatus[] getFeedback() {
-        return feedback;
+        return pattern >= 0 ? decode(pattern, length) : null;
+    }
+    
+    public int getPattern() {
+        return pattern;
+    }
+    
+    public int getLength() {
+        return length;
     }
     
     public int getAttemptNumber() {
@@ -149,48 +202,90 @@ public class GuessResult {
     }
     
     public Map<Character, LetterStatus> getLetterSummary() {
-        return new HashMap<>(letterSummary);
+        if (pattern < 0) {
+            return Collections.emptyMap();
+        }
+        
+        Map<Character, LetterStatus> summary = new HashMap<>();
+        int remaining = pattern;
+        for (int i = 0; i < length; i++) {
+            char letter = Alphabet.letter(WordCode.letterAt(guessCode, i));
+            LetterStatus currentStatus = DIGIT_STATUS[remaining % 3];
+            remaining /= 3;
+            
+            LetterStatus existingStatus = summary.get(letter);
+            if (existingStatus == null || shouldUpdateStatus(existingStatus, currentStatus)) {
+                summary.put(letter, currentStatus);
+            }
+        }
+        return Collections.unmodifiableMap(summary);
+    }
+    
+    private boolean shouldUpdateStatus(LetterStatus existing, LetterStatus newStatus) {
+        if (newStatus == LetterStatus.CORRECT) {
+            return true;
+        }
+        if (newStatus == LetterStatus.PRESENT && existing != LetterStatus.CORRECT) {
+            return true;
+        }
+        return false;
+    }
+    
+    public int getCorrectMask() {
+        return positionMask(Feedback.CORRECT);
+    }
+    
+    public int getPresentMask() {
+        return positionMask(Feedback.PRESENT);
+    }
+    
+    public int getAbsentMask() {
+        return positionMask(Feedback.ABSENT);
     }
     
     public List<Integer> getCorrectPositions() {
-        return new ArrayList<>(correctPositions);
+        return new PositionList(getCorrectMask());
     }
     
     public List<Integer> getPresentPositions() {
-        return new ArrayList<>(presentPositions);
+        return new PositionList(getPresentMask());
     }
     
     public List<Integer> getAbsentPositions() {
-        return new ArrayList<>(absentPositions);
+        return new PositionList(getAbsentMask());
     }
     
     public String getTargetWord() {
-        return targetWord;
+        return targetCode != WordCode.INVALID ? WordCode.decode(targetCode) : null;
     }
     
     public boolean isWinningGuess() {
-        return isWinningGuess;
+        return status == Status.CORRECT;
     }
     
     public double getAccuracy() {
-        return accuracy;
+        if (length == 0) {
+            return 0.0;
+        }
+        
+        return ((getCorrectLetterCount() * 1.0) + (getPresentLetterCount() * 0.5)) / length * 100;
     }
     
     public int getCorrectLetterCount() {
-        return correctPositions.size();
+        return Integer.bitCount(getCorrectMask());
     }
     
     public int getPresentLetterCount() {
-        return presentPositions.size();
+        return Integer.bitCount(getPresentMask());
     }
     
     public int getAbsentLetterCount() {
-        return absentPositions.size();
+        return Integer.bitCount(getAbsentMask());
     }
     
     public boolean isValidGuess() {
-        return status != Status.INVALID_LENGTH && 
-               status != Status.INVALID_WORD && 
+        return status != Status.INVALID_LENGTH &&
+               status != Status.INVALID_WORD &&
                status != Status.ALREADY_GUESSED &&
                status != Status.NO_ACTIVE_GAME &&
                status != Status.GAME_PAUSED;
@@ -201,6 +296,7 @@ public class GuessResult {
     }
     
     public String getFormattedGuess() {
+        String guess = getGuess();
         if (guess == null) {
             return "";
         }
@@ -208,76 +304,43 @@ public class GuessResult {
     }
     
     public String getColoredGuess() {
-        if (feedback == null || guess == null) {
+        String guess = getGuess();
+        if (pattern < 0 || guess == null) {
             return guess;
         }
         
-        StringBuilder colored = new StringBuilder();
-        char[] letters = guess.toUpperCase().toCharArray();
+        StringBuilder colored = new StringBuilder(length * 3);
+        int remaining = pattern;
         
-        for (int i = 0; i < letters.length && i < feedback.length; i++) {
-            switch (feedback[i]) {
-                case CORRECT:
-                    colored.append("§a").append(letters[i]);
+        for (int i = 0; i < length && i < guess.length(); i++) {
+            switch (remaining % 3) {
+                case Feedback.CORRECT:
+                    colored.append("§a");
                     break;
-                case PRESENT:
-                    colored.append("§e").append(letters[i]);
-                    break;
-                case ABSENT:
-                    colored.append("§8").append(letters[i]);
+                case Feedback.PRESENT:
+                    colored.append("§e");
                     break;
                 default:
-                    colored.append("§7").append(letters[i]);
+                    colored.append("§8");
                     break;
             }
+            colored.append(Character.toUpperCase(guess.charAt(i)));
+            remaining /= 3;
         }
         
         return colored.toString();
     }
     
     public List<Character> getCorrectLetters() {
-        List<Character> correct = new ArrayList<>();
-        if (guess == null || feedback == null) {
-            return correct;
-        }
-        
-        char[] letters = guess.toCharArray();
-        for (int i = 0; i < letters.length && i < feedback.length; i++) {
-            if (feedback[i] == LetterStatus.CORRECT) {
-                correct.add(letters[i]);
-            }
-        }
-        return correct;
+        return lettersAt(getCorrectMask());
     }
     
     public List<Character> getPresentLetters() {
-        List<Character> present = new ArrayList<>();
-        if (guess == null || feedback == null) {
-            return present;
-        }
-        
-        char[] letters = guess.toCharArray();
-        for (int i = 0; i < letters.length && i < feedback.length; i++) {
-            if (feedback[i] == LetterStatus.PRESENT) {
-                present.add(letters[i]);
-            }
-        }
-        return present;
+        return lettersAt(getPresentMask());
     }
     
     public List<Character> getAbsentLetters() {
-        List<Character> absent = new ArrayList<>();
-        if (guess == null || feedback == null) {
-            return absent;
-        }
-        
-        char[] letters = guess.toCharArray();
-        for (int i = 0; i < letters.length && i < feedback.length; i++) {
-            if (feedback[i] == LetterStatus.ABSENT) {
-                absent.add(letters[i]);
-            }
-        }
-        return absent;
+        return lettersAt(getAbsentMask());
     }
     
     public String getStatusMessage() {
@@ -289,7 +352,7 @@ public class GuessResult {
             case GAME_OVER:
                 return "§c§lPROHRA! Vyčerpal jsi všechny pokusy!";
             case INVALID_LENGTH:
-                return "§cSlovo musí mít přesně 5 písmen!";
+                return "§cSlovo nemá správnou délku!";
             case INVALID_WORD:
                 return "§cToto slovo není v seznamu!";
             case ALREADY_GUESSED:
@@ -305,13 +368,13 @@ public class GuessResult {
     
     public Map<String, Object> toMap() {
         Map<String, Object> map = new HashMap<>();
-        map.put("guess", guess);
+        map.put("guess", getGuess());
         map.put("status", status.name());
         map.put("attemptNumber", attemptNumber);
         map.put("remainingAttempts", remainingAttempts);
         map.put("timestamp", timestamp);
-        map.put("isWinning", isWinningGuess);
-        map.put("accuracy", accuracy);
+        map.put("isWinning", isWinningGuess());
+        map.put("accuracy", getAccuracy());
         map.put("correctCount", getCorrectLetterCount());
         map.put("presentCount", getPresentLetterCount());
         map.put("absentCount", getAbsentLetterCount());
@@ -321,54 +384,78 @@ public class GuessResult {
     @Override
     public String toString() {
         return "Result{" +
-                "guess='" + guess + '\'' +
+                "guess='" + getGuess() + '\'' +
                 ", status=" + status +
                 ", attemptNumber=" + attemptNumber +
                 ", remainingAttempts=" + remainingAttempts +
-                ", accuracy=" + String.format("%.1f", accuracy) + "%" +
+                ", accuracy=" + String.format("%.1f", getAccuracy()) + "%" +
                 ", correctLetters=" + getCorrectLetterCount() +
                 '}';
     }
     
     public boolean hasCorrectLetters() {
-        return !correctPositions.isEmpty();
+        return getCorrectMask() != 0;
     }
     
     public boolean hasPresentLetters() {
-        return !presentPositions.isEmpty();
+        return getPresentMask() != 0;
     }
     
     public boolean hasAbsentLetters() {
-        return !absentPositions.isEmpty();
+        return getAbsentMask() != 0;
     }
     
     public int getTotalHints() {
-        return correctPositions.size() + presentPositions.size();
+        return getCorrectLetterCount() + getPresentLetterCount();
     }
     
     public String getProgressBar() {
-        if (feedback == null) {
+        if (pattern < 0) {
             return "§7[-----]";
         }
         
         StringBuilder bar = new StringBuilder("§7[");
-        for (LetterStatus status : feedback) {
-            switch (status) {
-                case CORRECT:
+        int remaining = pattern;
+        for (int i = 0; i < length; i++) {
+            switch (remaining % 3) {
+                case Feedback.CORRECT:
                     bar.append("§a█");
                     break;
-                case PRESENT:
+                case Feedback.PRESENT:
                     bar.append("§e█");
                     break;
-                case ABSENT:
-                    bar.append("§8█");
-                    break;
                 default:
-                    bar.append("§7-");
+                    bar.append("§8█");
                     break;
             }
+            remaining /= 3;
         }
         bar.append("§7]");
         return bar.toString();
     }
+    
+    private static final class PositionList extends AbstractList<Integer> {
+        private final int mask;
+        
+        private PositionList(int mask) {
+            this.mask = mask;
+        }
+        
+        @Override
+        public Integer get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            int remaining = mask;
+            for (int i = 0; i < index; i++) {
+                remaining &= remaining - 1;
+            }
+            return Integer.numberOfTrailingZeros(remaining);
+        }
+        
+        @Override
+        public int size() {
+            return Integer.bitCount(mask);
+        }
+    }
 }
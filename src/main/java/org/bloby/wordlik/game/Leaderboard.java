@@ -0,0 +1,272 @@
+package org.bloby.wordlik.game;
+
+import org.bloby.wordlik.Wordlik;
+import org.bloby.wordlik.utils.RankedTree;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rankings kept up to date as stats change, one order-statistic tree per category. An update
+ * moves a player's entries in O(log n), and pages or a player's own rank are read without
+ * sorting all players. Win rate and average attempts only rank players with enough games. Each
+ * entry keeps only the few counters the rankings need, so the leaderboard doubles as the summary
+ * index of every player without their full stats being loaded.
+ */
+public class Leaderboard {
+    
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble((Entry entry) -> -entry.score)
+            .thenComparing(entry -> entry.playerId);
+    
+    private final int minGames;
+    private final Map<Category, RankedTree<Entry>> rankings;
+    private final Map<Category, Integer> versions;
+    private final Map<UUID, Entry[]> entries;
+    private final Map<UUID, String> names;
+    
+    public Leaderboard(int minGames) {
+        this.minGames = minGames;
+        this.rankings = new EnumMap<>(Category.class);
+        this.versions = new EnumMap<>(Category.class);
+        for (Category category : Category.values()) {
+            rankings.put(category, new RankedTree<>(ORDER));
+            versions.put(category, 0);
+        }
+        this.entries = new HashMap<>();
+        this.names = new ConcurrentHashMap<>();
+    }
+    
+    public void update(UUID playerId, Wordlik.PlayerStats.Snapshot stats) {
+        update(playerId, stats.getGamesPlayed(), stats.getGamesWon(), stats.getBestStreak(), stats.getTotalAttempts());
+    }
+    
+    /**
+     * Replaces the player's entries with the given counters. Rendered rankings only show the score,
+     * so a category's version changes only when a score, and with it the ranking, changes.
+     */
+    public synchronized void update(UUID playerId, int gamesPlayed, int gamesWon, int bestStreak, int totalAttempts) {
+        Entry[] current = entries.get(playerId);
+        if (current == null) {
+            current = new Entry[Category.values().length];
+            entries.put(playerId, current);
+        } else if (current[0] != null && current[0].gamesPlayed > gamesPlayed) {
+            return;
+        }
+        
+        for (Category category : Category.values()) {
+            Entry old = current[category.ordinal()];
+            Entry next = new Entry(playerId, gamesPlayed, gamesWon, bestStreak, totalAttempts, category);
+            if (!qualifies(category, next)) {
+                next = null;
+            }
+            
+            RankedTree<Entry> ranking = rankings.get(category);
+            if (old != null) {
+                ranking.remove(old);
+            }
+            if (next != null) {
+                ranking.add(next);
+            }
+            current[category.ordinal()] = next;
+            if (old == null || next == null || old.score != next.score) {
+                versions.merge(category, 1, Integer::sum);
+            }
+        }
+    }
+    
+    private boolean qualifies(Category category, Entry entry) {
+        switch (category) {
+            case WIN_RATE:
+                return entry.gamesPlayed >= minGames;
+            case AVERAGE_ATTEMPTS:
+                return entry.gamesWon >= minGames;
+            default:
+                return entry.gamesPlayed > 0;
+        }
+    }
+    
+    public synchronized void remove(UUID playerId) {
+        Entry[] current = entries.remove(playerId);
+        if (current == null) {
+            return;
+        }
+        
+        for (Category category : Category.values()) {
+            Entry old = current[category.ordinal()];
+            if (old != null) {
+                rankings.get(category).remove(old);
+                versions.merge(category, 1, Integer::sum);
+            }
+        }
+    }
+    
+    public synchronized List<Entry> getPage(Category category, int page, int pageSize) {
+        RankedTree<Entry> ranking = rankings.get(category);
+        int from = Math.max(0, page * pageSize);
+        int to = Math.min(ranking.size(), from + pageSize);
+        
+        List<Entry> result = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            result.add(ranking.get(i));
+        }
+        return result;
+    }
+    
+    /**
+     * One-based position of the player in {@code category}, or -1 if they are not ranked there.
+     */
+    public synchronized int getRank(Category category, UUID playerId) {
+        Entry[] current = entries.get(playerId);
+        Entry entry = current != null ? current[category.ordinal()] : null;
+        return entry != null ? rankings.get(category).rank(entry) + 1 : -1;
+    }
+    
+    /**
+     * Share of ranked players placed below the player, in percent.
+     */
+    public synchronized double getPercentile(Category category, UUID playerId) {
+        int rank = getRank(category, playerId);
+        int size = rankings.get(category).size();
+        return rank > 0 ? (double) (size - rank) / size * 100 : 0.0;
+    }
+    
+    public synchronized int size(Category category) {
+        return rankings.get(category).size();
+    }
+    
+    public synchronized int getVersion(Category category) {
+        return versions.get(category);
+    }
+    
+    public int getMinGames() {
+        return minGames;
+    }
+    
+    public String getName(UUID playerId) {
+        return names.computeIfAbsent(playerId, id -> {
+            OfflinePlayer player = Bukkit.getOfflinePlayer(id);
+            String name = player != null ? player.getName() : null;
+            return name != null ? name : id.toString().substring(0, 8);
+        });
+    }
+    
+    public void cacheName(UUID playerId, String name) {
+        names.put(playerId, name);
+    }
+    
+    public synchronized void clear() {
+        for (RankedTree<Entry> ranking : rankings.values()) {
+            ranking.clear();
+        }
+        versions.replaceAll((category, version) -> version + 1);
+        entries.clear();
+    }
+    
+    public enum Category {
+        WINS("vyhry", "Výhry"),
+        WIN_RATE("uspesnost", "Úspěšnost"),
+        BEST_STREAK("serie", "Nejlepší série"),
+        AVERAGE_ATTEMPTS("pokusy", "Průměr pokusů");
+        
+        private final String key;
+        private final String title;
+        
+        Category(String key, String title) {
+            this.key = key;
+            this.title = title;
+        }
+        
+        public String getKey() {
+            return key;
+        }
+        
+        public String getTitle() {
+            return title;
+        }
+        
+        private double score(Entry entry) {
+            switch (this) {
+                case WIN_RATE:
+                    return entry.getWinRate();
+                case BEST_STREAK:
+                    return entry.bestStreak;
+                case AVERAGE_ATTEMPTS:
+                    return -entry.getAverageAttempts();
+                default:
+                    return entry.gamesWon;
+            }
+        }
+        
+        public String format(Entry entry) {
+            switch (this) {
+                case WIN_RATE:
+                    return String.format("%.1f%%", entry.getWinRate());
+                case AVERAGE_ATTEMPTS:
+                    return String.format("%.2f", entry.getAverageAttempts());
+                case BEST_STREAK:
+                    return String.valueOf(entry.bestStreak);
+                default:
+                    return String.valueOf(entry.gamesWon);
+            }
+        }
+        
+        public static Category fromKey(String key) {
+            for (Category category : values()) {
+                if (category.key.equalsIgnoreCase(key) || category.name().equalsIgnoreCase(key)) {
+                    return category;
+                }
+            }
+            return null;
+        }
+    }
+    
+    public static final class Entry {
+        private final UUID playerId;
+        private final int gamesPlayed;
+        private final int gamesWon;
+        private final int bestStreak;
+        private final int totalAttempts;
+        private final double score;
+        
+        private Entry(UUID playerId, int gamesPlayed, int gamesWon, int bestStreak, int totalAttempts, Category category) {
+            this.playerId = playerId;
+            this.gamesPlayed = gamesPlayed;
+            this.gamesWon = gamesWon;
+            this.bestStreak = bestStreak;
+            this.totalAttempts = totalAttempts;
+            this.score = category.score(this);
+        }
+        
+        public UUID getPlayerId() {
+            return playerId;
+        }
+        
+        public int getGamesPlayed() {
+            return gamesPlayed;
+        }
+        
+        public int getGamesWon() {
+            return gamesWon;
+        }
+        
+        public int getBestStreak() {
+            return bestStreak;
+        }
+        
+        public double getWinRate() {
+            return gamesPlayed > 0 ? (double) gamesWon / gamesPlayed * 100 : 0.0;
+        }
+        
+        public double getAverageAttempts() {
+            return gamesWon > 0 ? (double) totalAttempts / gamesWon : 0.0;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.bloby.wordlik.game;
+
+import java.util.PriorityQueue;
+
+/**
+ * Sessions ordered by the time they may expire. Activity only moves a session's clock forward,
+ * so entries are not updated on every command; when an entry comes due the caller checks the
+ * session's real deadline and schedules it again if it has been active since. Each session has at
+ * most one entry queued.
+ */
+final class SessionExpiryQueue {
+    
+    private final PriorityQueue<Entry> queue;
+    
+    SessionExpiryQueue() {
+        this.queue = new PriorityQueue<>((a, b) -> Long.compare(a.deadline, b.deadline));
+    }
+    
+    synchronized void schedule(GameSession session, long deadline) {
+        if (!session.queued) {
+            session.queued = true;
+            queue.add(new Entry(session, deadline));
+        }
+    }
+    
+    synchronized GameSession pollDue(long now) {
+        Entry head = queue.peek();
+        if (head == null || head.deadline > now) {
+            return null;
+        }
+        queue.poll();
+        head.session.queued = false;
+        return head.session;
+    }
+    
+    synchronized int size() {
+        return queue.size();
+    }
+    
+    synchronized void clear() {
+        for (Entry entry : queue) {
+            entry.session.queued = false;
+        }
+        queue.clear();
+    }
+    
+    private static final class Entry {
+        private final GameSession session;
+        private final long deadline;
+        
+        private Entry(GameSession session, long deadline) {
+            this.session = session;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.bloby.wordlik.game;
+
+import org.bloby.wordlik.utils.Permutation;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One player's pass through a dictionary partition in shuffled order. Only the seed and the
+ * position are kept; the order itself is recomputed from the seed, so a deck costs a few bytes
+ * no matter how many games the player has finished. When every word has been dealt the deck is
+ * reshuffled with a fresh seed.
+ */
+public class WordDeck {
+    
+    private final int size;
+    private long seed;
+    private int position;
+    private Permutation permutation;
+    
+    public WordDeck(int size) {
+        this(size, ThreadLocalRandom.current().nextLong(), 0);
+    }
+    
+    public WordDeck(int size, long seed, int position) {
+        this.size = size;
+        this.seed = seed;
+        this.position = Math.max(0, Math.min(position, size));
+    }
+    
+    private Permutation permutation() {
+        if (permutation == null) {
+            permutation = new Permutation(size, seed);
+        }
+        return permutation;
+    }
+    
+    private void reshuffleIfEmpty() {
+        if (position >= size) {
+            seed = ThreadLocalRandom.current().nextLong();
+            position = 0;
+            permutation = null;
+        }
+    }
+    
+    public synchronized int next() {
+        reshuffleIfEmpty();
+        return permutation().get(position++);
+    }
+    
+    public synchronized int peek() {
+        reshuffleIfEmpty();
+        return permutation().get(position);
+    }
+    
+    public synchronized int dealt(int index) {
+        if (index >= position) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Dealt: " + position);
+        }
+        return permutation().get(index);
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public synchronized long getSeed() {
+        return seed;
+    }
+    
+    public synchronized int getPosition() {
+        return position;
+    }
+}
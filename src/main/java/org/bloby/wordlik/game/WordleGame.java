@@ -1,23 +1,41 @@
 package org.bloby.wordlik.game;
 
+import org.bloby.wordlik.utils.Alphabet;
+import org.bloby.wordlik.utils.DictionaryPartition;
+import org.bloby.wordlik.utils.Feedback;
+import org.bloby.wordlik.utils.WordCode;
 import org.bloby.wordlik.utils.WordList;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 public class WordleGame {
     
+    private static final GuessResult.LetterStatus[] KEYBOARD_STATUS = {
+        null,
+        GuessResult.LetterStatus.ABSENT,
+        GuessResult.LetterStatus.PRESENT,
+        GuessResult.LetterStatus.CORRECT
+    };
+    
     private final String targetWord;
-    private final WordList wordList;
+    private final long targetCode;
+    private final int wordLength;
+    private final DictionaryPartition words;
     private final int maxAttempts;
-    private final List<String> guesses;
-    private final List<GuessResult> results;
-    private final Set<String> guessedWords;
-    private final Map<Character, GuessResult.LetterStatus> letterStatuses;
+    private final long[] guessCodes;
+    private final int[] patterns;
+    private final long[] guessTimes;
+    private final byte[] letterStates;
+    private final int[] letterCounts;
+    private final DailyChallenge daily;
+    private CandidateSet candidates;
     private int attempts;
     private boolean finished;
     private long startTime;
@@ -28,13 +46,32 @@ public class WordleGame {
     }
     
     public WordleGame(String targetWord, WordList wordList, int maxAttempts) {
-        this.targetWord = targetWord.toLowerCase();
-        this.wordList = wordList;
+        this(wordList.getPartition(targetWord.length()), WordCode.encode(targetWord), maxAttempts);
+    }
+    
+    public WordleGame(DictionaryPartition words, long targetCode, int maxAttempts) {
+        this(words, targetCode, maxAttempts, null);
+    }
+    
+    public WordleGame(DailyChallenge daily, int maxAttempts) {
+        this(daily.getPartition(), daily.getTargetCode(), maxAttempts, daily);
+    }
+    
+    private WordleGame(DictionaryPartition words, long targetCode, int maxAttempts, DailyChallenge daily) {
+        if (words == null || WordCode.length(targetCode) != words.getLength()) {
+            throw new IllegalArgumentException("Nepodporovaná délka slova");
+        }
+        this.targetCode = targetCode;
+        this.targetWord = WordCode.decode(targetCode);
+        this.wordLength = words.getLength();
+        this.words = words;
         this.maxAttempts = maxAttempts;
-        this.guesses = new ArrayList<>();
-        this.results = new ArrayList<>();
-        this.guessedWords = new HashSet<>();
-        this.letterStatuses = new HashMap<>();
+        this.guessCodes = new long[maxAttempts];
+        this.patterns = new int[maxAttempts];
+        this.guessTimes = new long[maxAttempts];
+        this.letterStates = new byte[Alphabet.SIZE + 1];
+        this.letterCounts = daily == null ? Feedback.newLetterCounts() : null;
+        this.daily = daily;
         this.attempts = 0;
         this.finished = false;
         this.startTime = System.currentTimeMillis();
@@ -42,113 +79,94 @@ public class WordleGame {
     }
     
     public GuessResult makeGuess(String guess) {
-        guess = guess.toLowerCase();
-        
+        long code = WordCode.encode(guess);
         if (finished) {
-            return new GuessResult(guess, GuessResult.Status.GAME_OVER, null);
+            return GuessResult.rejected(GuessResult.Status.GAME_OVER, code);
         }
         
-        if (guess.length() != 5) {
-            return new GuessResult(guess, GuessResult.Status.INVALID_LENGTH, null);
+        if (guess.length() != wordLength) {
+            return GuessResult.rejected(GuessResult.Status.INVALID_LENGTH, code);
         }
         
-        if (!wordList.isValidWord(guess)) {
-            return new GuessResult(guess, GuessResult.Status.INVALID_WORD, null);
+        int ordinal = words.indexOf(code);
+        if (ordinal < 0) {
+            return GuessResult.rejected(GuessResult.Status.INVALID_WORD, code);
         }
         
-        if (guessedWords.contains(guess)) {
-            return new GuessResult(guess, GuessResult.Status.ALREADY_GUESSED, null);
+        if (hasGuessed(code)) {
+            return GuessResult.rejected(GuessResult.Status.ALREADY_GUESSED, code);
         }
         
+        int pattern = daily != null ? daily.score(ordinal) : Feedback.score(code, targetCode, wordLength, letterCounts);
+        guessCodes[attempts] = code;
+        patterns[attempts] = pattern;
+        guessTimes[attempts] = System.currentTimeMillis();
         attempts++;
-        guesses.add(guess);
-        guessedWords.add(guess);
-        
-        GuessResult.LetterStatus[] feedback = evaluateGuess(guess);
-        updateLetterStatuses(guess, feedback);
+        updateLetterStates(code, pattern);
         
-        GuessResult.Status status;
-        if (guess.equals(targetWord)) {
-            status = GuessResult.Status.CORRECT;
+        if (code == targetCode) {
             finished = true;
             won = true;
         } else if (attempts >= maxAttempts) {
-            status = GuessResult.Status.GAME_OVER;
             finished = true;
-        } else {
-            status = GuessResult.Status.WRONG;
-        }
-        
-        GuessResult result = new GuessResult(guess, status, feedback, attempts, maxAttempts - attempts, targetWord);
-        results.add(result);
-        
-        return result;
-    }
-    
-    private GuessResult.LetterStatus[] evaluateGuess(String guess) {
-        GuessResult.LetterStatus[] feedback = new GuessResult.LetterStatus[5];
-        char[] targetChars = targetWord.toCharArray();
-        char[] guessChars = guess.toCharArray();
-        boolean[] targetUsed = new boolean[5];
-        boolean[] guessUsed = new boolean[5];
-        
-        for (int i = 0; i < 5; i++) {
-            if (guessChars[i] == targetChars[i]) {
-                feedback[i] = GuessResult.LetterStatus.CORRECT;
-                targetUsed[i] = true;
-                guessUsed[i] = true;
-            }
         }
         
-        for (int i = 0; i < 5; i++) {
-            if (guessUsed[i]) {
-                continue;
-            }
-            
-            boolean found = false;
-            for (int j = 0; j < 5; j++) {
-                if (!targetUsed[j] && guessChars[i] == targetChars[j]) {
-                    feedback[i] = GuessResult.LetterStatus.PRESENT;
-                    targetUsed[j] = true;
-                    found = true;
-                    break;
-                }
-            }
-            
-            if (!found) {
-                feedback[i] = GuessResult.LetterStatus.ABSENT;
-            }
+        if (candidates != null) {
+            candidates.apply(code, pattern);
         }
         
-        return feedback;
+        return resultAt(attempts - 1);
     }
     
-    private void updateLetterStatuses(String guess, GuessResult.LetterStatus[] feedback) {
-        for (int i = 0; i < guess.length(); i++) {
-            char letter = guess.charAt(i);
-            GuessResult.LetterStatus currentStatus = letterStatuses.get(letter);
-            GuessResult.LetterStatus newStatus = feedback[i];
+    private void updateLetterStates(long code, int pattern) {
+        for (int i = 0; i < wordLength; i++) {
+            int letter = WordCode.letterAt(code, i);
+            int state = pattern % 3 + 1;
+            pattern /= 3;
             
-            if (currentStatus == null || shouldUpdateStatus(currentStatus, newStatus)) {
-                letterStatuses.put(letter, newStatus);
+            if (state > letterStates[letter]) {
+                letterStates[letter] = (byte) state;
             }
         }
     }
     
-    private boolean shouldUpdateStatus(GuessResult.LetterStatus existing, GuessResult.LetterStatus newStatus) {
-        if (newStatus == GuessResult.LetterStatus.CORRECT) {
-            return true;
-        }
-        if (newStatus == GuessResult.LetterStatus.PRESENT && existing != GuessResult.LetterStatus.CORRECT) {
-            return true;
+    private GuessResult resultAt(int index) {
+        GuessResult.Status status;
+        if (guessCodes[index] == targetCode) {
+            status = GuessResult.Status.CORRECT;
+        } else if (index + 1 >= maxAttempts) {
+            status = GuessResult.Status.GAME_OVER;
+        } else {
+            status = GuessResult.Status.WRONG;
         }
-        return false;
+        return new GuessResult(guessCodes[index], status, patterns[index], wordLength, index + 1,
+                maxAttempts - index - 1, targetCode, guessTimes[index]);
     }
     
     public String getTargetWord() {
         return targetWord;
     }
     
+    public long getTargetCode() {
+        return targetCode;
+    }
+    
+    public int getWordLength() {
+        return wordLength;
+    }
+    
+    public DictionaryPartition getPartition() {
+        return words;
+    }
+    
+    public boolean isDaily() {
+        return daily != null;
+    }
+    
+    public DailyChallenge getDailyChallenge() {
+        return daily;
+    }
+    
     public int getAttempts() {
         return attempts;
     }
@@ -169,16 +187,66 @@ public class WordleGame {
         return startTime;
     }
     
+    public long getGuessCode(int index) {
+        return guessCodes[index];
+    }
+    
+    public int getPattern(int index) {
+        return patterns[index];
+    }
+    
     public List<String> getGuesses() {
-        return new ArrayList<>(guesses);
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                checkIndex(index);
+                return WordCode.decode(guessCodes[index]);
+            }
+            
+            @Override
+            public int size() {
+                return attempts;
+            }
+        };
     }
     
     public List<GuessResult> getResults() {
-        return new ArrayList<>(results);
+        return new AbstractList<GuessResult>() {
+            @Override
+            public GuessResult get(int index) {
+                checkIndex(index);
+                return resultAt(index);
+            }
+            
+            @Override
+            public int size() {
+                return attempts;
+            }
+        };
+    }
+    
+    private void checkIndex(int index) {
+        if (index < 0 || index >= attempts) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + attempts);
+        }
+    }
+    
+    public GuessResult.LetterStatus getLetterStatus(char letter) {
+        return KEYBOARD_STATUS[letterStates[Alphabet.ordinal(letter)]];
     }
     
     public Map<Character, GuessResult.LetterStatus> getLetterStatuses() {
-        return new HashMap<>(letterStatuses);
+        return new LetterStatusView();
+    }
+    
+    public CandidateSet getCandidates() {
+        if (candidates == null) {
+            candidates = new CandidateSet(words);
+            for (int i = 0; i < attempts; i++) {
+                candidates.apply(guessCodes[i], patterns[i]);
+            }
+        }
+        return candidates;
     }
     
     public int getRemainingAttempts() {
@@ -190,6 +258,74 @@ public class WordleGame {
     }
     
     public boolean hasGuessed(String word) {
-        return guessedWords.contains(word.toLowerCase());
+        return hasGuessed(WordCode.encode(word));
+    }
+    
+    public boolean hasGuessed(long code) {
+        for (int i = 0; i < attempts; i++) {
+            if (guessCodes[i] == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private final class LetterStatusView extends AbstractMap<Character, GuessResult.LetterStatus> {
+        
+        @Override
+        public GuessResult.LetterStatus get(Object key) {
+            return key instanceof Character ? getLetterStatus((Character) key) : null;
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+        
+        @Override
+        public Set<Entry<Character, GuessResult.LetterStatus>> entrySet() {
+            return new AbstractSet<Entry<Character, GuessResult.LetterStatus>>() {
+                @Override
+                public Iterator<Entry<Character, GuessResult.LetterStatus>> iterator() {
+                    return new Iterator<Entry<Character, GuessResult.LetterStatus>>() {
+                        private int next = advance(0);
+                        
+                        private int advance(int from) {
+                            int letter = from + 1;
+                            while (letter <= Alphabet.SIZE && letterStates[letter] == 0) {
+                                letter++;
+                            }
+                            return letter;
+                        }
+                        
+                        @Override
+                        public boolean hasNext() {
+                            return next <= Alphabet.SIZE;
+                        }
+                        
+                        @Override
+                        public Entry<Character, GuessResult.LetterStatus> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int letter = next;
+                            next = advance(letter);
+                            return new SimpleImmutableEntry<>(Alphabet.letter(letter), KEYBOARD_STATUS[letterStates[letter]]);
+                        }
+                    };
+                }
+                
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (int letter = 1; letter <= Alphabet.SIZE; letter++) {
+                        if (letterStates[letter] != 0) {
+                            size++;
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
     }
 }
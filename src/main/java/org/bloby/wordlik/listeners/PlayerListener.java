@@ -0,0 +1,35 @@
+package org.bloby.wordlik.listeners;
+
+import org.bloby.wordlik.Wordlik;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+public class PlayerListener implements Listener {
+    
+    private final Wordlik plugin;
+    
+    public PlayerListener(Wordlik plugin) {
+        this.plugin = plugin;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            plugin.prefetchStats(event.getUniqueId());
+        }
+    }
+    
+    @EventHandler
+    public void onJoin(PlayerJoinEvent event) {
+        plugin.playerJoined(event.getPlayer());
+    }
+    
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        plugin.playerQuit(event.getPlayer());
+    }
+}
@@ -0,0 +1,276 @@
+package org.bloby.wordlik.stats;
+
+import org.bloby.wordlik.Wordlik;
+import org.bloby.wordlik.utils.RecordJournal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stats kept in {@link RecordJournal}s: each save appends the player's whole record, commits are
+ * grouped into one fsync per journal and the journals are periodically compacted into indexed
+ * snapshots. Players are split by UUID hash into shards named {@code stats.<shards>.<index>}, which
+ * are opened, replayed and summarized in parallel on the common fork-join pool during enable.
+ */
+public class JournalStatsStore implements StatsStore {
+    
+    private static final String NAME = "stats";
+    private static final Pattern FILE_NAME =
+        Pattern.compile("(" + NAME + "(?:\\.\\d+\\.\\d+)?)(?:\\.snapshot|-\\d+\\.journal)");
+    
+    private final Path folder;
+    private final RecordJournal[] shards;
+    private final Logger logger;
+    
+    public JournalStatsStore(File folder, int shardCount, Logger logger) {
+        this.folder = folder.toPath();
+        this.shards = new RecordJournal[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new RecordJournal(this.folder, shardName(shards.length, i));
+        }
+        this.logger = logger;
+    }
+    
+    /**
+     * Opens all shards in parallel, then moves the records of any other shard layout, including the
+     * single journal of earlier versions, into the current shards.
+     */
+    @Override
+    public void open() throws IOException {
+        Files.createDirectories(folder);
+        
+        long discarded = 0;
+        for (long bytes : runParallel(journal -> {
+            journal.open();
+            return journal.getDiscardedBytes();
+        })) {
+            discarded += bytes;
+        }
+        if (discarded > 0) {
+            logger.warning("Journal statistik končil neúplným zápisem, zahozeno " + discarded + " B");
+        }
+        
+        for (String name : foreignJournals()) {
+            rehome(name);
+        }
+    }
+    
+    @Override
+    public Wordlik.PlayerStats.Snapshot load(UUID playerId) throws IOException {
+        byte[] record = shardOf(playerId).read(playerId);
+        if (record == null) {
+            return null;
+        }
+        try {
+            return Wordlik.PlayerStats.Snapshot.decode(record);
+        } catch (RuntimeException e) {
+            throw new IOException("Poškozený záznam statistik hráče " + playerId, e);
+        }
+    }
+    
+    @Override
+    public boolean contains(UUID playerId) {
+        return shardOf(playerId).contains(playerId);
+    }
+    
+    @Override
+    public void forEachSummary(SummaryConsumer consumer) throws IOException {
+        for (Summaries summaries : runParallel(Summaries::of)) {
+            summaries.forEach(consumer);
+        }
+    }
+    
+    @Override
+    public void save(UUID playerId, Wordlik.PlayerStats.Snapshot stats) {
+        shardOf(playerId).append(playerId, stats.encode());
+    }
+    
+    /**
+     * Commits the shards one after another on the calling thread; shards without pending records
+     * return at once, so a typical save costs a single fsync.
+     */
+    @Override
+    public void flush() throws IOException {
+        IOException error = null;
+        for (RecordJournal journal : shards) {
+            try {
+                journal.commit();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+    
+    @Override
+    public void compact() throws IOException {
+        for (RecordJournal journal : shards) {
+            journal.compact();
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        IOException error = null;
+        for (RecordJournal journal : shards) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+    
+    private RecordJournal shardOf(UUID playerId) {
+        return shards[Math.floorMod(playerId.hashCode(), shards.length)];
+    }
+    
+    private static String shardName(int shardCount, int index) {
+        return NAME + "." + shardCount + "." + index;
+    }
+    
+    private Set<String> foreignJournals() throws IOException {
+        Set<String> current = new HashSet<>();
+        for (int i = 0; i < shards.length; i++) {
+            current.add(shardName(shards.length, i));
+        }
+        
+        Set<String> foreign = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder)) {
+            for (Path file : files) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() && !current.contains(matcher.group(1))) {
+                    foreign.add(matcher.group(1));
+                }
+            }
+        }
+        return foreign;
+    }
+    
+    /**
+     * Copies the records of another layout into the current shards, commits them and only then
+     * deletes the old files. Players already present in the current shards keep their newer record.
+     */
+    private void rehome(String name) throws IOException {
+        RecordJournal old = new RecordJournal(folder, name);
+        old.open();
+        
+        int[] moved = new int[1];
+        old.forEach((playerId, record) -> {
+            RecordJournal target = shardOf(playerId);
+            if (!target.contains(playerId)) {
+                target.append(playerId, record);
+                moved[0]++;
+            }
+        });
+        flush();
+        old.delete();
+        
+        logger.info("Statistiky " + moved[0] + " hráčů přesunuty z " + name + " do " + shards.length + " shardů");
+    }
+    
+    private <T> List<T> runParallel(ShardTask<T> task) throws IOException {
+        List<ForkJoinTask<T>> tasks = new ArrayList<>(shards.length);
+        for (RecordJournal journal : shards) {
+            tasks.add(ForkJoinPool.commonPool().submit(() -> task.run(journal)));
+        }
+        
+        List<T> results = new ArrayList<>(shards.length);
+        IOException error = null;
+        for (ForkJoinTask<T> pending : tasks) {
+            try {
+                results.add(pending.get());
+            } catch (ExecutionException e) {
+                IOException cause = e.getCause() instanceof IOException
+                    ? (IOException) e.getCause() : new IOException(e.getCause());
+                if (error == null) {
+                    error = cause;
+                } else {
+                    error.addSuppressed(cause);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Přerušeno při práci se shardy statistik");
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        return results;
+    }
+    
+    @FunctionalInterface
+    private interface ShardTask<T> {
+        T run(RecordJournal journal) throws IOException;
+    }
+    
+    private static final class Summaries {
+        private UUID[] playerIds = new UUID[16];
+        private int[] counters = new int[64];
+        private int size;
+        
+        static Summaries of(RecordJournal journal) {
+            Summaries summaries = new Summaries();
+            journal.forEach((playerId, record) -> {
+                if (Wordlik.PlayerStats.Snapshot.isSupported(record)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(record);
+                    summaries.add(playerId, buffer.getInt(1), buffer.getInt(5), buffer.getInt(13), buffer.getInt(17));
+                }
+            });
+            return summaries;
+        }
+        
+        void add(UUID playerId, int gamesPlayed, int gamesWon, int bestStreak, int totalAttempts) {
+            if (size == playerIds.length) {
+                playerIds = Arrays.copyOf(playerIds, size * 2);
+                counters = Arrays.copyOf(counters, size * 8);
+            }
+            playerIds[size] = playerId;
+            int offset = size * 4;
+            counters[offset] = gamesPlayed;
+            counters[offset + 1] = gamesWon;
+            counters[offset + 2] = bestStreak;
+            counters[offset + 3] = totalAttempts;
+            size++;
+        }
+        
+        void forEach(SummaryConsumer consumer) {
+            for (int i = 0; i < size; i++) {
+                int offset = i * 4;
+                consumer.accept(playerIds[i], counters[offset], counters[offset + 1], counters[offset + 2],
+                                counters[offset + 3]);
+            }
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package org.bloby.wordlik.stats;
+
+import org.bloby.wordlik.Wordlik;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stats in an embedded SQLite database, one row per player, so they can be queried with plain SQL
+ * while the server runs. Saves only replace the player's entry in a pending map, which coalesces
+ * repeated updates; a dedicated writer thread upserts the pending rows as one batch in a single
+ * transaction whenever {@link #flush()} asks for it or the flush interval elapses. Reads go through
+ * a second connection and see pending rows first, the database runs in WAL mode so they never wait
+ * for the writer.
+ */
+public class SqliteStatsStore implements StatsStore {
+    
+    private static final String CREATE_TABLE =
+        "CREATE TABLE IF NOT EXISTS player_stats ("
+        + "uuid TEXT PRIMARY KEY, "
+        + "games_played INTEGER NOT NULL, "
+        + "games_won INTEGER NOT NULL, "
+        + "current_streak INTEGER NOT NULL, "
+        + "best_streak INTEGER NOT NULL, "
+        + "total_attempts INTEGER NOT NULL, "
+        + "total_play_time INTEGER NOT NULL, "
+        + "hints_used INTEGER NOT NULL, "
+        + "attempts_distribution TEXT NOT NULL)";
+    
+    private static final String UPSERT =
+        "INSERT INTO player_stats (uuid, games_played, games_won, current_streak, best_streak, total_attempts, "
+        + "total_play_time, hints_used, attempts_distribution) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) "
+        + "ON CONFLICT(uuid) DO UPDATE SET games_played = excluded.games_played, games_won = excluded.games_won, "
+        + "current_streak = excluded.current_streak, best_streak = excluded.best_streak, "
+        + "total_attempts = excluded.total_attempts, total_play_time = excluded.total_play_time, "
+        + "hints_used = excluded.hints_used, attempts_distribution = excluded.attempts_distribution";
+    
+    private static final String SELECT =
+        "SELECT games_played, games_won, current_streak, best_streak, total_attempts, total_play_time, hints_used, "
+        + "attempts_distribution FROM player_stats WHERE uuid = ?";
+    
+    private static final String SELECT_SUMMARIES =
+        "SELECT uuid, games_played, games_won, best_streak, total_attempts FROM player_stats";
+    
+    private final File file;
+    private final long flushIntervalMillis;
+    private final Logger logger;
+    private final Map<UUID, Wordlik.PlayerStats.Snapshot> pending;
+    private final Map<UUID, Wordlik.PlayerStats.Snapshot> writing;
+    private final Object signal;
+    private Connection readConnection;
+    private Connection writeConnection;
+    private Thread writer;
+    private boolean running;
+    private long requested;
+    private long written;
+    private SQLException failure;
+    
+    public SqliteStatsStore(File file, long flushIntervalMillis, Logger logger) {
+        this.file = file;
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.logger = logger;
+        this.pending = new ConcurrentHashMap<>();
+        this.writing = new ConcurrentHashMap<>();
+        this.signal = new Object();
+    }
+    
+    @Override
+    public void open() throws IOException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Ovladač SQLite není k dispozici", e);
+        }
+        
+        file.getParentFile().mkdirs();
+        String url = "jdbc:sqlite:" + file.getAbsolutePath();
+        try {
+            writeConnection = DriverManager.getConnection(url);
+            try (Statement statement = writeConnection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                statement.execute(CREATE_TABLE);
+            }
+            writeConnection.setAutoCommit(false);
+            readConnection = DriverManager.getConnection(url);
+        } catch (SQLException e) {
+            closeConnections();
+            throw new IOException("Nelze otevřít databázi statistik " + file, e);
+        }
+        
+        synchronized (signal) {
+            running = true;
+        }
+        writer = new Thread(this::runWriter, "Wordlik-Stats-Writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    @Override
+    public Wordlik.PlayerStats.Snapshot load(UUID playerId) throws IOException {
+        Wordlik.PlayerStats.Snapshot queued = pending.get(playerId);
+        if (queued == null) {
+            queued = writing.get(playerId);
+        }
+        if (queued != null) {
+            return queued;
+        }
+        
+        synchronized (readConnection) {
+            try (PreparedStatement statement = readConnection.prepareStatement(SELECT)) {
+                statement.setString(1, playerId.toString());
+                try (ResultSet result = statement.executeQuery()) {
+                    if (!result.next()) {
+                        return null;
+                    }
+                    return new Wordlik.PlayerStats.Snapshot(result.getInt(1), result.getInt(2), result.getInt(3),
+                                                            result.getInt(4), result.getInt(5), result.getLong(6),
+                                                            result.getInt(7), parseDistribution(result.getString(8)));
+                }
+            } catch (SQLException e) {
+                throw new IOException("Nelze načíst statistiky hráče " + playerId, e);
+            }
+        }
+    }
+    
+    @Override
+    public boolean contains(UUID playerId) throws IOException {
+        return load(playerId) != null;
+    }
+    
+    @Override
+    public void forEachSummary(SummaryConsumer consumer) throws IOException {
+        synchronized (readConnection) {
+            try (Statement statement = readConnection.createStatement();
+                 ResultSet result = statement.executeQuery(SELECT_SUMMARIES)) {
+                while (result.next()) {
+                    UUID playerId;
+                    try {
+                        playerId = UUID.fromString(result.getString(1));
+                    } catch (IllegalArgumentException e) {
+                        continue;
+                    }
+                    consumer.accept(playerId, result.getInt(2), result.getInt(3), result.getInt(4), result.getInt(5));
+                }
+            } catch (SQLException e) {
+                throw new IOException("Nelze načíst přehled statistik", e);
+            }
+        }
+    }
+    
+    @Override
+    public void save(UUID playerId, Wordlik.PlayerStats.Snapshot stats) {
+        pending.put(playerId, stats);
+    }
+    
+    /**
+     * Wakes the writer and waits until everything saved before the call is committed.
+     */
+    @Override
+    public void flush() throws IOException {
+        synchronized (signal) {
+            if (!running) {
+                return;
+            }
+            long target = ++requested;
+            signal.notifyAll();
+            
+            boolean interrupted = false;
+            while (written < target && running) {
+                try {
+                    signal.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            
+            if (failure != null) {
+                SQLException e = failure;
+                failure = null;
+                throw new IOException("Nelze uložit statistiky do databáze", e);
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        IOException error = null;
+        try {
+            flush();
+        } catch (IOException e) {
+            error = e;
+        }
+        
+        synchronized (signal) {
+            running = false;
+            signal.notifyAll();
+        }
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeConnections();
+        
+        if (error != null) {
+            throw error;
+        }
+    }
+    
+    private void runWriter() {
+        while (true) {
+            long target;
+            synchronized (signal) {
+                if (running && requested == written) {
+                    try {
+                        signal.wait(flushIntervalMillis);
+                    } catch (InterruptedException e) {
+                        running = false;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+                target = requested;
+            }
+            
+            SQLException error = null;
+            try {
+                writeBatch();
+            } catch (SQLException e) {
+                error = e;
+                logger.log(Level.WARNING, "Zápis statistik do databáze selhal", e);
+            }
+            
+            synchronized (signal) {
+                if (error != null) {
+                    failure = error;
+                }
+                written = Math.max(written, target);
+                signal.notifyAll();
+            }
+        }
+    }
+    
+    private void writeBatch() throws SQLException {
+        for (Iterator<Map.Entry<UUID, Wordlik.PlayerStats.Snapshot>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<UUID, Wordlik.PlayerStats.Snapshot> entry = it.next();
+            writing.put(entry.getKey(), entry.getValue());
+            it.remove();
+        }
+        if (writing.isEmpty()) {
+            return;
+        }
+        
+        try (PreparedStatement statement = writeConnection.prepareStatement(UPSERT)) {
+            for (Map.Entry<UUID, Wordlik.PlayerStats.Snapshot> entry : writing.entrySet()) {
+                Wordlik.PlayerStats.Snapshot stats = entry.getValue();
+                statement.setString(1, entry.getKey().toString());
+                statement.setInt(2, stats.getGamesPlayed());
+                statement.setInt(3, stats.getGamesWon());
+                statement.setInt(4, stats.getCurrentStreak());
+                statement.setInt(5, stats.getBestStreak());
+                statement.setInt(6, stats.getTotalAttempts());
+                statement.setLong(7, stats.getTotalPlayTime());
+                statement.setInt(8, stats.getHintsUsed());
+                statement.setString(9, formatDistribution(stats));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            writeConnection.commit();
+            writing.clear();
+        } catch (SQLException e) {
+            try {
+                writeConnection.rollback();
+            } catch (SQLException rollback) {
+                e.addSuppressed(rollback);
+            }
+            for (Map.Entry<UUID, Wordlik.PlayerStats.Snapshot> entry : writing.entrySet()) {
+                pending.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+            writing.clear();
+            throw e;
+        }
+    }
+    
+    private void closeConnections() {
+        for (Connection connection : new Connection[] {readConnection, writeConnection}) {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    logger.log(Level.WARNING, "Nelze zavřít databázi statistik", e);
+                }
+            }
+        }
+        readConnection = null;
+        writeConnection = null;
+    }
+    
+    private static String formatDistribution(Wordlik.PlayerStats.Snapshot stats) {
+        StringBuilder builder = new StringBuilder();
+        for (int attempts = 1; attempts <= stats.getDistributionSize(); attempts++) {
+            if (attempts > 1) {
+                builder.append(',');
+            }
+            builder.append(stats.getAttemptCount(attempts));
+        }
+        return builder.toString();
+    }
+    
+    private static int[] parseDistribution(String value) {
+        String[] counts = value == null || value.isEmpty() ? new String[0] : value.split(",");
+        int[] distribution = new int[Math.max(Wordlik.PlayerStats.MAX_ATTEMPTS, counts.length)];
+        for (int i = 0; i < counts.length; i++) {
+            distribution[i] = Integer.parseInt(counts[i].trim());
+        }
+        return distribution;
+    }
+}
@@ -0,0 +1,41 @@
+package org.bloby.wordlik.stats;
+
+import org.bloby.wordlik.Wordlik;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Persistent storage of player stats. {@link #save} may only queue the record; it is durable once
+ * {@link #flush()} returns. Implementations must be safe to call from the main thread, the
+ * auto-save task and the async pre-login prefetch at the same time.
+ */
+public interface StatsStore extends Closeable {
+    
+    void open() throws IOException;
+    
+    /**
+     * The latest stored or queued record of the player, or {@code null} if there is none.
+     */
+    Wordlik.PlayerStats.Snapshot load(UUID playerId) throws IOException;
+    
+    boolean contains(UUID playerId) throws IOException;
+    
+    /**
+     * Visits the ranking counters of every stored player without materializing their full stats.
+     */
+    void forEachSummary(SummaryConsumer consumer) throws IOException;
+    
+    void save(UUID playerId, Wordlik.PlayerStats.Snapshot stats);
+    
+    void flush() throws IOException;
+    
+    default void compact() throws IOException {
+    }
+    
+    @FunctionalInterface
+    interface SummaryConsumer {
+        void accept(UUID playerId, int gamesPlayed, int gamesWon, int bestStreak, int totalAttempts);
+    }
+}
@@ -0,0 +1,137 @@
+package org.bloby.wordlik.stats;
+
+import org.bloby.wordlik.Wordlik;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stats of all players in one {@code stats.yml}, the plugin's original format. The whole file is
+ * held in memory and rewritten on every flush that has changes, to a temporary file that is then
+ * renamed over the original.
+ */
+public class YamlStatsStore implements StatsStore {
+    
+    private final File file;
+    private YamlConfiguration config;
+    private boolean changed;
+    
+    public YamlStatsStore(File file) {
+        this.file = file;
+    }
+    
+    @Override
+    public synchronized void open() throws IOException {
+        if (!file.exists()) {
+            file.getParentFile().mkdirs();
+            file.createNewFile();
+        }
+        config = YamlConfiguration.loadConfiguration(file);
+        changed = false;
+    }
+    
+    @Override
+    public synchronized Wordlik.PlayerStats.Snapshot load(UUID playerId) {
+        ConfigurationSection section = config.getConfigurationSection(playerId.toString());
+        return section != null ? read(section) : null;
+    }
+    
+    @Override
+    public synchronized boolean contains(UUID playerId) {
+        return config.contains(playerId.toString());
+    }
+    
+    @Override
+    public synchronized void forEachSummary(SummaryConsumer consumer) {
+        for (String key : config.getKeys(false)) {
+            UUID playerId;
+            try {
+                playerId = UUID.fromString(key);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            consumer.accept(playerId, config.getInt(key + ".gamesPlayed", 0), config.getInt(key + ".gamesWon", 0),
+                            config.getInt(key + ".bestStreak", 0), config.getInt(key + ".totalAttempts", 0));
+        }
+    }
+    
+    @Override
+    public synchronized void save(UUID playerId, Wordlik.PlayerStats.Snapshot stats) {
+        String key = playerId.toString();
+        config.set(key, null);
+        config.set(key + ".gamesPlayed", stats.getGamesPlayed());
+        config.set(key + ".gamesWon", stats.getGamesWon());
+        config.set(key + ".currentStreak", stats.getCurrentStreak());
+        config.set(key + ".bestStreak", stats.getBestStreak());
+        config.set(key + ".totalAttempts", stats.getTotalAttempts());
+        config.set(key + ".totalPlayTime", stats.getTotalPlayTime());
+        config.set(key + ".hintsUsed", stats.getHintsUsed());
+        
+        List<Integer> distribution = new ArrayList<>(stats.getDistributionSize());
+        for (int attempts = 1; attempts <= stats.getDistributionSize(); attempts++) {
+            distribution.add(stats.getAttemptCount(attempts));
+        }
+        config.set(key + ".attemptsDistribution", distribution);
+        changed = true;
+    }
+    
+    @Override
+    public synchronized void flush() throws IOException {
+        if (!changed) {
+            return;
+        }
+        
+        Path temp = new File(file.getPath() + ".tmp").toPath();
+        Files.write(temp, config.saveToString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        changed = false;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+    
+    /**
+     * Reads a player's section. The distribution is either a list of counts starting at one
+     * attempt, or a section keyed by the number of attempts as older versions wrote it.
+     */
+    public static Wordlik.PlayerStats.Snapshot read(ConfigurationSection section) {
+        int[] distribution = new int[Wordlik.PlayerStats.MAX_ATTEMPTS];
+        ConfigurationSection attempts = section.getConfigurationSection("attemptsDistribution");
+        if (attempts != null) {
+            for (String attempt : attempts.getKeys(false)) {
+                int index = Integer.parseInt(attempt) - 1;
+                if (index >= distribution.length) {
+                    distribution = Arrays.copyOf(distribution, index + 1);
+                }
+                if (index >= 0) {
+                    distribution[index] = attempts.getInt(attempt);
+                }
+            }
+        } else {
+            List<Integer> counts = section.getIntegerList("attemptsDistribution");
+            if (counts.size() > distribution.length) {
+                distribution = new int[counts.size()];
+            }
+            for (int i = 0; i < counts.size(); i++) {
+                distribution[i] = counts.get(i);
+            }
+        }
+        
+        return new Wordlik.PlayerStats.Snapshot(section.getInt("gamesPlayed", 0), section.getInt("gamesWon", 0),
+                                                section.getInt("currentStreak", 0), section.getInt("bestStreak", 0),
+                                                section.getInt("totalAttempts", 0), section.getLong("totalPlayTime", 0),
+                                                section.getInt("hintsUsed", 0), distribution);
+    }
+}
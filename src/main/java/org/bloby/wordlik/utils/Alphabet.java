@@ -0,0 +1,28 @@
+package org.bloby.wordlik.utils;
+
+public final class Alphabet {
+    
+    public static final String LETTERS = "aábcčdďeéěfghiíjklmnňoópqrřsštťuúůvwxyýzž";
+    public static final int SIZE = LETTERS.length();
+    
+    private static final byte[] ORDINALS = new byte[0x180];
+    
+    static {
+        for (int i = 0; i < SIZE; i++) {
+            char lower = LETTERS.charAt(i);
+            ORDINALS[lower] = (byte) (i + 1);
+            ORDINALS[Character.toUpperCase(lower)] = (byte) (i + 1);
+        }
+    }
+    
+    private Alphabet() {
+    }
+    
+    public static int ordinal(char c) {
+        return c < ORDINALS.length ? ORDINALS[c] : 0;
+    }
+    
+    public static char letter(int ordinal) {
+        return LETTERS.charAt(ordinal - 1);
+    }
+}
@@ -0,0 +1,126 @@
+package org.bloby.wordlik.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class Dictionary {
+    
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final Map<Integer, Integer> entries;
+    private final Map<Integer, DictionaryPartition> partitions;
+    
+    private Dictionary(Path path, MappedByteBuffer buffer, Map<Integer, Integer> entries) {
+        this.path = path;
+        this.buffer = buffer;
+        this.entries = entries;
+        this.partitions = new ConcurrentHashMap<>();
+    }
+    
+    public static Dictionary open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        
+        if (buffer.limit() < DictionaryCompiler.HEADER_SIZE || buffer.getInt(0) != DictionaryCompiler.MAGIC) {
+            throw new IOException("Soubor " + path + " není zkompilovaný slovník");
+        }
+        if (buffer.getInt(4) != DictionaryCompiler.VERSION) {
+            throw new IOException("Nepodporovaná verze slovníku: " + buffer.getInt(4));
+        }
+        
+        int partitionCount = buffer.getInt(8);
+        if ((long) DictionaryCompiler.HEADER_SIZE + (long) partitionCount * DictionaryCompiler.ENTRY_SIZE > buffer.limit()) {
+            throw new IOException("Poškozený slovník: adresář mimo rozsah souboru");
+        }
+        
+        Map<Integer, Integer> entries = new TreeMap<>();
+        for (int i = 0; i < partitionCount; i++) {
+            int entry = DictionaryCompiler.HEADER_SIZE + i * DictionaryCompiler.ENTRY_SIZE;
+            long[] sizes = sectionSizes(buffer.getInt(entry), buffer.getInt(entry + 4));
+            for (int section = 0; section < sizes.length; section++) {
+                long offset = buffer.getLong(entry + 8 + 8 * section);
+                if (offset < 0 || offset + sizes[section] > buffer.limit()) {
+                    throw new IOException("Poškozený slovník: sekce mimo rozsah souboru");
+                }
+            }
+            entries.put(buffer.getInt(entry), entry);
+        }
+        
+        return new Dictionary(path, buffer, Collections.unmodifiableMap(entries));
+    }
+    
+    private static long[] sectionSizes(int length, int count) {
+        return new long[] {
+                (long) count * length,
+                count,
+                4L * DictionaryCompiler.INDEX_SIZE,
+                8L * count,
+                4L * DictionaryCompiler.hashCapacity(count),
+                4L * (DictionaryCompiler.BUCKET_INDEX_SIZE + count),
+                count
+        };
+    }
+    
+    private DictionaryPartition readPartition(int entry) {
+        int length = buffer.getInt(entry);
+        int count = buffer.getInt(entry + 4);
+        long[] sizes = sectionSizes(length, count);
+        
+        ByteBuffer[] sections = new ByteBuffer[sizes.length];
+        for (int section = 0; section < sizes.length; section++) {
+            int offset = (int) buffer.getLong(entry + 8 + 8 * section);
+            sections[section] = buffer.duplicate().position(offset).limit(offset + (int) sizes[section]).slice();
+        }
+        
+        return new DictionaryPartition(length, count, sections[0], sections[1], sections[2].asIntBuffer(),
+                sections[3].asLongBuffer(), sections[4].asIntBuffer(), sections[5].asIntBuffer(), sections[6]);
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    public Set<Integer> getLengths() {
+        return entries.keySet();
+    }
+    
+    public boolean hasLength(int length) {
+        return entries.containsKey(length);
+    }
+    
+    public DictionaryPartition getPartition(int length) {
+        DictionaryPartition partition = partitions.get(length);
+        if (partition == null) {
+            Integer entry = entries.get(length);
+            if (entry == null) {
+                return null;
+            }
+            partition = readPartition(entry);
+            DictionaryPartition existing = partitions.putIfAbsent(length, partition);
+            if (existing != null) {
+                partition = existing;
+            }
+        }
+        return partition;
+    }
+    
+    public DictionaryPartition getLoadedPartition(int length) {
+        return partitions.get(length);
+    }
+    
+    public int getWordCount(int length) {
+        Integer entry = entries.get(length);
+        return entry != null ? buffer.getInt(entry + 4) : 0;
+    }
+}
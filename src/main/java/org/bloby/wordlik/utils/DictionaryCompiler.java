@@ -0,0 +1,326 @@
+package org.bloby.wordlik.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compiles a plain word file (one word per line, UTF-8, {@code #} comments) into the binary
+ * dictionary read by {@link Dictionary}.
+ *
+ * <pre>
+ * header     int magic, int version, int partitionCount
+ * directory  partitionCount x (int length, int count, long words, long difficulty, long index,
+ *                              long codes, long hash, long buckets, long scores)
+ * words      count x length bytes, alphabet ordinals, sorted
+ * difficulty count bytes, 1 to MAX_DIFFICULTY derived from the score
+ * index      (Alphabet.SIZE + 2) ints, first-letter start offsets
+ * codes      count longs, {@link WordCode} of every word
+ * hash       hashCapacity(count) ints, open-addressing table of ordinal + 1 (0 = empty slot)
+ * buckets    (MAX_DIFFICULTY + 2) ints, prefix offsets per difficulty level,
+ *            followed by count ints, ordinals ordered by difficulty
+ * scores     count bytes, expected guesses of the {@link DifficultyScorer} solver, in halves
+ * </pre>
+ */
+public final class DictionaryCompiler {
+    
+    public static final int MAGIC = 0x574C4458;
+    public static final int VERSION = 4;
+    public static final int MIN_WORD_LENGTH = 3;
+    public static final int MAX_WORD_LENGTH = WordCode.MAX_LENGTH;
+    public static final int MAX_DIFFICULTY = 15;
+    
+    static final int HEADER_SIZE = 16;
+    static final int ENTRY_SIZE = 64;
+    static final int INDEX_SIZE = Alphabet.SIZE + 2;
+    static final int BUCKET_INDEX_SIZE = MAX_DIFFICULTY + 2;
+    
+    private DictionaryCompiler() {
+    }
+    
+    public static Summary compile(Path source, Path target) throws IOException {
+        Map<Integer, List<byte[]>> partitions = new TreeMap<>();
+        int rejected = 0;
+        int read = 0;
+        
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String word = line.trim();
+                if (word.isEmpty() || word.startsWith("#")) {
+                    continue;
+                }
+                read++;
+                
+                byte[] letters = toOrdinals(word);
+                if (letters == null) {
+                    rejected++;
+                    continue;
+                }
+                partitions.computeIfAbsent(letters.length, k -> new ArrayList<>()).add(letters);
+            }
+        }
+        
+        Map<Integer, Map<Long, Byte>> previousScores = readScores(target);
+        Map<Integer, byte[]> scores = new TreeMap<>();
+        int accepted = 0;
+        int scored = 0;
+        for (Map.Entry<Integer, List<byte[]>> entry : partitions.entrySet()) {
+            List<byte[]> words = entry.getValue();
+            words.sort(Arrays::compare);
+            
+            List<byte[]> unique = new ArrayList<>(words.size());
+            for (byte[] word : words) {
+                if (unique.isEmpty() || !Arrays.equals(unique.get(unique.size() - 1), word)) {
+                    unique.add(word);
+                }
+            }
+            entry.setValue(unique);
+            accepted += unique.size();
+            
+            long[] codes = new long[unique.size()];
+            byte[] cached = new byte[unique.size()];
+            Map<Long, Byte> previous = previousScores.getOrDefault(entry.getKey(), Collections.emptyMap());
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = WordCode.encode(unique.get(i));
+                cached[i] = previous.getOrDefault(codes[i], (byte) 0);
+                if (cached[i] == 0) {
+                    scored++;
+                }
+            }
+            scores.put(entry.getKey(), new DifficultyScorer(codes, entry.getKey()).score(cached));
+        }
+        
+        write(target, partitions, scores);
+        return new Summary(accepted, rejected, read - rejected - accepted, scored);
+    }
+    
+    private static Map<Integer, Map<Long, Byte>> readScores(Path target) {
+        Map<Integer, Map<Long, Byte>> scores = new HashMap<>();
+        if (!Files.exists(target)) {
+            return scores;
+        }
+        
+        try {
+            Dictionary previous = Dictionary.open(target);
+            for (int length : previous.getLengths()) {
+                DictionaryPartition partition = previous.getPartition(length);
+                Map<Long, Byte> partitionScores = new HashMap<>(partition.getCount() * 2);
+                for (int i = 0; i < partition.getCount(); i++) {
+                    partitionScores.put(partition.getCode(i), partition.getScore(i));
+                }
+                scores.put(partition.getLength(), partitionScores);
+            }
+        } catch (IOException e) {
+            scores.clear();
+        }
+        return scores;
+    }
+    
+    public static boolean isUpToDate(Path source, Path target) throws IOException {
+        if (!Files.exists(target)) {
+            return false;
+        }
+        if (Files.exists(source)
+                && Files.getLastModifiedTime(source).compareTo(Files.getLastModifiedTime(target)) > 0) {
+            return false;
+        }
+        
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(8);
+            if (channel.read(header, 0) < 8) {
+                return false;
+            }
+            return header.getInt(0) == MAGIC && header.getInt(4) == VERSION;
+        }
+    }
+    
+    private static byte[] toOrdinals(String word) {
+        int length = word.length();
+        if (length < MIN_WORD_LENGTH || length > MAX_WORD_LENGTH) {
+            return null;
+        }
+        
+        byte[] letters = new byte[length];
+        for (int i = 0; i < length; i++) {
+            int ordinal = Alphabet.ordinal(word.charAt(i));
+            if (ordinal == 0) {
+                return null;
+            }
+            letters[i] = (byte) ordinal;
+        }
+        return letters;
+    }
+    
+    private static void write(Path target, Map<Integer, List<byte[]>> partitions, Map<Integer, byte[]> scores)
+            throws IOException {
+        long size = HEADER_SIZE + (long) ENTRY_SIZE * partitions.size();
+        for (Map.Entry<Integer, List<byte[]>> entry : partitions.entrySet()) {
+            size += partitionSize(entry.getKey(), entry.getValue().size());
+        }
+        
+        ByteBuffer out = ByteBuffer.allocate(Math.toIntExact(size));
+        out.putInt(MAGIC).putInt(VERSION).putInt(partitions.size());
+        
+        long offset = HEADER_SIZE + (long) ENTRY_SIZE * partitions.size();
+        int entryPosition = HEADER_SIZE;
+        for (Map.Entry<Integer, List<byte[]>> entry : partitions.entrySet()) {
+            int length = entry.getKey();
+            List<byte[]> words = entry.getValue();
+            int count = words.size();
+            
+            long wordsOffset = offset;
+            long difficultyOffset = wordsOffset + (long) count * length;
+            long indexOffset = align(difficultyOffset + count);
+            long codesOffset = align(indexOffset + 4L * INDEX_SIZE);
+            long hashOffset = codesOffset + 8L * count;
+            long bucketsOffset = align(hashOffset + 4L * hashCapacity(count));
+            long scoresOffset = align(bucketsOffset + 4L * (BUCKET_INDEX_SIZE + count));
+            offset = align(scoresOffset + count);
+            
+            out.position(entryPosition);
+            out.putInt(length).putInt(count).putLong(wordsOffset).putLong(difficultyOffset).putLong(indexOffset)
+                    .putLong(codesOffset).putLong(hashOffset).putLong(bucketsOffset).putLong(scoresOffset);
+            entryPosition = out.position();
+            
+            int[] firstLetterStarts = new int[INDEX_SIZE];
+            out.position((int) wordsOffset);
+            for (byte[] word : words) {
+                out.put(word);
+                firstLetterStarts[word[0] + 1]++;
+            }
+            for (int i = 1; i < INDEX_SIZE; i++) {
+                firstLetterStarts[i] += firstLetterStarts[i - 1];
+            }
+            
+            byte[] score = scores.get(length);
+            out.position((int) scoresOffset);
+            out.put(score);
+            
+            byte[] difficulty = new byte[count];
+            int[] bucketStarts = new int[BUCKET_INDEX_SIZE];
+            for (int ordinal = 0; ordinal < count; ordinal++) {
+                difficulty[ordinal] = (byte) DifficultyScorer.difficultyFor(score[ordinal] & 0xFF);
+                bucketStarts[difficulty[ordinal] + 1]++;
+            }
+            for (int i = 1; i < BUCKET_INDEX_SIZE; i++) {
+                bucketStarts[i] += bucketStarts[i - 1];
+            }
+            out.position((int) difficultyOffset);
+            out.put(difficulty);
+            
+            out.position((int) bucketsOffset);
+            for (int start : bucketStarts) {
+                out.putInt(start);
+            }
+            int[] bucketFill = Arrays.copyOf(bucketStarts, BUCKET_INDEX_SIZE);
+            int bucketOrdinals = (int) bucketsOffset + 4 * BUCKET_INDEX_SIZE;
+            for (int ordinal = 0; ordinal < count; ordinal++) {
+                out.putInt(bucketOrdinals + 4 * bucketFill[difficulty[ordinal]]++, ordinal);
+            }
+            
+            out.position((int) indexOffset);
+            for (int start : firstLetterStarts) {
+                out.putInt(start);
+            }
+            
+            int mask = hashCapacity(count) - 1;
+            for (int ordinal = 0; ordinal < count; ordinal++) {
+                long code = WordCode.encode(words.get(ordinal));
+                out.putLong((int) codesOffset + 8 * ordinal, code);
+                
+                int slot = WordCode.hash(code) & mask;
+                while (out.getInt((int) hashOffset + 4 * slot) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                out.putInt((int) hashOffset + 4 * slot, ordinal + 1);
+            }
+        }
+        
+        out.position(0);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private static long partitionSize(int length, int count) {
+        long size = align((long) count * length + count) + 4L * INDEX_SIZE;
+        size = align(align(size) + 8L * count + 4L * hashCapacity(count));
+        size = align(size + 4L * (BUCKET_INDEX_SIZE + count));
+        return align(size + count);
+    }
+    
+    static int hashCapacity(int count) {
+        return Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1;
+    }
+    
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Použití: DictionaryCompiler <words.txt> <dictionary.bin>");
+            System.exit(1);
+        }
+        
+        Summary summary = compile(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println(summary);
+    }
+    
+    public static final class Summary {
+        private final int accepted;
+        private final int rejected;
+        private final int duplicates;
+        private final int scored;
+        
+        Summary(int accepted, int rejected, int duplicates, int scored) {
+            this.accepted = accepted;
+            this.rejected = rejected;
+            this.duplicates = duplicates;
+            this.scored = scored;
+        }
+        
+        public int getAccepted() {
+            return accepted;
+        }
+        
+        public int getRejected() {
+            return rejected;
+        }
+        
+        public int getDuplicates() {
+            return duplicates;
+        }
+        
+        public int getScored() {
+            return scored;
+        }
+        
+        @Override
+        public String toString() {
+            return "Zkompilováno " + accepted + " slov (odmítnuto: " + rejected + ", duplicitních: " + duplicates
+                    + ", nově ohodnocených: " + scored + ")";
+        }
+    }
+}
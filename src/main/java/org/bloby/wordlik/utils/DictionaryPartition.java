@@ -0,0 +1,138 @@
+package org.bloby.wordlik.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+public final class DictionaryPartition {
+    
+    private final int length;
+    private final int count;
+    private final ByteBuffer words;
+    private final ByteBuffer difficulty;
+    private final IntBuffer firstLetterIndex;
+    private final LongBuffer codes;
+    private final IntBuffer hashTable;
+    private final int hashMask;
+    private final IntBuffer difficultyBuckets;
+    private final ByteBuffer scores;
+    private volatile WordIndex index;
+    private volatile FeedbackMatrix feedbackMatrix;
+    
+    DictionaryPartition(int length, int count, ByteBuffer words, ByteBuffer difficulty, IntBuffer firstLetterIndex,
+                        LongBuffer codes, IntBuffer hashTable, IntBuffer difficultyBuckets, ByteBuffer scores) {
+        this.length = length;
+        this.count = count;
+        this.words = words;
+        this.difficulty = difficulty;
+        this.firstLetterIndex = firstLetterIndex;
+        this.codes = codes;
+        this.hashTable = hashTable;
+        this.hashMask = hashTable.capacity() - 1;
+        this.difficultyBuckets = difficultyBuckets;
+        this.scores = scores;
+    }
+    
+    public int getLength() {
+        return length;
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    public int letterAt(int ordinal, int position) {
+        return words.get(ordinal * length + position);
+    }
+    
+    public String getWord(int ordinal) {
+        char[] chars = new char[length];
+        int base = ordinal * length;
+        for (int i = 0; i < length; i++) {
+            chars[i] = Alphabet.letter(words.get(base + i));
+        }
+        return new String(chars);
+    }
+    
+    public int getDifficulty(int ordinal) {
+        return difficulty.get(ordinal);
+    }
+    
+    byte getScore(int ordinal) {
+        return scores.get(ordinal);
+    }
+    
+    public double getExpectedGuesses(int ordinal) {
+        return (scores.get(ordinal) & 0xFF) / 2.0;
+    }
+    
+    public int getDifficultyStart(int minDifficulty) {
+        return difficultyBuckets.get(clampDifficulty(minDifficulty));
+    }
+    
+    public int getDifficultyEnd(int maxDifficulty) {
+        return difficultyBuckets.get(clampDifficulty(maxDifficulty + 1));
+    }
+    
+    public int getOrdinalByDifficulty(int index) {
+        return difficultyBuckets.get(DictionaryCompiler.BUCKET_INDEX_SIZE + index);
+    }
+    
+    private static int clampDifficulty(int difficulty) {
+        return Math.max(0, Math.min(difficulty, DictionaryCompiler.MAX_DIFFICULTY + 1));
+    }
+    
+    public int getFirstLetterStart(int letterOrdinal) {
+        return firstLetterIndex.get(letterOrdinal);
+    }
+    
+    public int getFirstLetterEnd(int letterOrdinal) {
+        return firstLetterIndex.get(letterOrdinal + 1);
+    }
+    
+    public WordIndex getIndex() {
+        WordIndex result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    result = WordIndex.build(this);
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+    
+    public FeedbackMatrix getFeedbackMatrix() {
+        return feedbackMatrix;
+    }
+    
+    void setFeedbackMatrix(FeedbackMatrix feedbackMatrix) {
+        this.feedbackMatrix = feedbackMatrix;
+    }
+    
+    public long getCode(int ordinal) {
+        return codes.get(ordinal);
+    }
+    
+    public int indexOf(CharSequence word) {
+        return word.length() == length ? indexOf(WordCode.encode(word)) : -1;
+    }
+    
+    public int indexOf(long code) {
+        if (code == WordCode.INVALID) {
+            return -1;
+        }
+        
+        int slot = WordCode.hash(code) & hashMask;
+        int entry;
+        while ((entry = hashTable.get(slot)) != 0) {
+            if (codes.get(entry - 1) == code) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & hashMask;
+        }
+        return -1;
+    }
+}
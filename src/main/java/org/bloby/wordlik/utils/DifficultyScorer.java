@@ -0,0 +1,134 @@
+package org.bloby.wordlik.utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Scores every word by the number of guesses a reference solver needs to find it. At each step
+ * the solver plays the remaining candidate whose feedback buckets carry the most information
+ * (smallest sum of b * log b over bucket sizes b); once two or fewer candidates remain it picks
+ * one at random. Scores are expected guess counts stored in halves.
+ */
+final class DifficultyScorer {
+    
+    private final long[] codes;
+    private final int length;
+    private final int[] all;
+    private final Map<Integer, Integer> secondGuesses;
+    private int opener;
+    
+    DifficultyScorer(long[] codes, int length) {
+        this.codes = codes;
+        this.length = length;
+        this.all = IntStream.range(0, codes.length).toArray();
+        this.secondGuesses = new ConcurrentHashMap<>();
+        this.opener = -1;
+    }
+    
+    byte[] score(byte[] cached) {
+        byte[] scores = cached.clone();
+        int[] pending = IntStream.range(0, codes.length).filter(target -> scores[target] == 0).toArray();
+        if (pending.length == 0) {
+            return scores;
+        }
+        
+        if (codes.length > 2) {
+            double[] costs = IntStream.of(all).parallel().mapToDouble(guess -> cost(guess, all)).toArray();
+            opener = 0;
+            for (int i = 1; i < costs.length; i++) {
+                if (costs[i] < costs[opener]) {
+                    opener = i;
+                }
+            }
+        }
+        
+        IntStream.of(pending)
+                .parallel()
+                .forEach(target -> scores[target] = (byte) Math.min(halfGuesses(target), 0xFF));
+        return scores;
+    }
+    
+    static int difficultyFor(int halfGuesses) {
+        int difficulty = Math.round((halfGuesses / 2.0f - 1) * 3);
+        return Math.max(1, Math.min(difficulty, DictionaryCompiler.MAX_DIFFICULTY));
+    }
+    
+    private int halfGuesses(int target) {
+        int[] letterCounts = Feedback.newLetterCounts();
+        int[] candidates = all;
+        int firstPattern = -1;
+        int guesses = 0;
+        
+        while (candidates.length > 2) {
+            int guess;
+            if (guesses == 0) {
+                guess = opener;
+            } else if (guesses == 1) {
+                int[] remaining = candidates;
+                guess = secondGuesses.computeIfAbsent(firstPattern, p -> bestGuess(remaining));
+            } else {
+                guess = bestGuess(candidates);
+            }
+            
+            guesses++;
+            if (guess == target) {
+                return 2 * guesses;
+            }
+            
+            int pattern = Feedback.score(codes[guess], codes[target], length, letterCounts);
+            if (guesses == 1) {
+                firstPattern = pattern;
+            }
+            candidates = filter(candidates, guess, pattern, letterCounts);
+        }
+        
+        return 2 * guesses + candidates.length + 1;
+    }
+    
+    private int bestGuess(int[] candidates) {
+        int best = candidates[0];
+        double bestCost = Double.MAX_VALUE;
+        for (int guess : candidates) {
+            double cost = cost(guess, candidates);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = guess;
+            }
+        }
+        return best;
+    }
+    
+    private double cost(int guess, int[] candidates) {
+        int[] letterCounts = Feedback.newLetterCounts();
+        int[] buckets = new int[Feedback.patternCount(length)];
+        int[] patterns = new int[candidates.length];
+        
+        for (int i = 0; i < candidates.length; i++) {
+            patterns[i] = Feedback.score(codes[guess], codes[candidates[i]], length, letterCounts);
+            buckets[patterns[i]]++;
+        }
+        
+        double cost = 0;
+        for (int pattern : patterns) {
+            int size = buckets[pattern];
+            if (size > 1) {
+                cost += size * Math.log(size);
+            }
+            buckets[pattern] = 0;
+        }
+        return cost;
+    }
+    
+    private int[] filter(int[] candidates, int guess, int pattern, int[] letterCounts) {
+        int[] matching = new int[candidates.length];
+        int size = 0;
+        for (int candidate : candidates) {
+            if (Feedback.score(codes[guess], codes[candidate], length, letterCounts) == pattern) {
+                matching[size++] = candidate;
+            }
+        }
+        return Arrays.copyOf(matching, size);
+    }
+}
@@ -0,0 +1,69 @@
+package org.bloby.wordlik.utils;
+
+public final class Feedback {
+    
+    public static final int ABSENT = 0;
+    public static final int PRESENT = 1;
+    public static final int CORRECT = 2;
+    
+    private static final int[] POWERS = new int[WordCode.MAX_LENGTH + 1];
+    
+    static {
+        POWERS[0] = 1;
+        for (int i = 1; i < POWERS.length; i++) {
+            POWERS[i] = POWERS[i - 1] * 3;
+        }
+    }
+    
+    private Feedback() {
+    }
+    
+    public static int[] newLetterCounts() {
+        return new int[Alphabet.SIZE + 1];
+    }
+    
+    /**
+     * Scores {@code guess} against {@code target} as a base-3 number, one digit per position.
+     * {@code letterCounts} is scratch space from {@link #newLetterCounts()}; it must be all zero
+     * on entry and is left all zero on return.
+     */
+    public static int score(long guess, long target, int length, int[] letterCounts) {
+        int pattern = 0;
+        
+        for (int i = 0; i < length; i++) {
+            int g = WordCode.letterAt(guess, i);
+            int t = WordCode.letterAt(target, i);
+            if (g == t) {
+                pattern += CORRECT * POWERS[i];
+            } else {
+                letterCounts[t]++;
+            }
+        }
+        
+        for (int i = 0; i < length; i++) {
+            int g = WordCode.letterAt(guess, i);
+            if (g != WordCode.letterAt(target, i) && letterCounts[g] > 0) {
+                letterCounts[g]--;
+                pattern += PRESENT * POWERS[i];
+            }
+        }
+        
+        for (int i = 0; i < length; i++) {
+            letterCounts[WordCode.letterAt(target, i)] = 0;
+        }
+        
+        return pattern;
+    }
+    
+    public static int digit(int pattern, int position) {
+        return pattern / POWERS[position] % 3;
+    }
+    
+    public static int patternCount(int length) {
+        return POWERS[length];
+    }
+    
+    public static int allCorrect(int length) {
+        return POWERS[length] - 1;
+    }
+}
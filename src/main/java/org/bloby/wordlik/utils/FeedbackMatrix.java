@@ -0,0 +1,198 @@
+package org.bloby.wordlik.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Feedback pattern of every (guess, target) pair of one dictionary partition, stored row by row
+ * (one row per guess) in a memory-mapped file. Cells are one byte while the base-3 patterns fit,
+ * two bytes for longer words.
+ */
+public final class FeedbackMatrix {
+    
+    public static final int MAGIC = 0x574C464D;
+    public static final int VERSION = 1;
+    
+    private static final int HEADER_SIZE = 64;
+    private static final long REGION_SIZE = 1L << 30;
+    private static final int BUILD_THRESHOLD = 16;
+    
+    private final int length;
+    private final int count;
+    private final int cellSize;
+    private final int rowsPerRegion;
+    private final MappedByteBuffer[] regions;
+    
+    private FeedbackMatrix(int length, int count, MappedByteBuffer[] regions) {
+        this.length = length;
+        this.count = count;
+        this.cellSize = cellSize(length);
+        this.rowsPerRegion = rowsPerRegion(count, cellSize);
+        this.regions = regions;
+    }
+    
+    public static Path pathFor(Path dictionary, int length) {
+        return dictionary.resolveSibling("feedback-" + length + ".bin");
+    }
+    
+    public static FeedbackMatrix loadOrBuild(Path path, DictionaryPartition words, ForkJoinPool pool) throws IOException {
+        FeedbackMatrix matrix = load(path, words);
+        if (matrix == null) {
+            build(path, words, pool);
+            matrix = load(path, words);
+            if (matrix == null) {
+                throw new IOException("Nelze načíst matici zpětné vazby " + path);
+            }
+        }
+        return matrix;
+    }
+    
+    public static FeedbackMatrix load(Path path, DictionaryPartition words) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.read(header, 0) < HEADER_SIZE
+                    || header.getInt(0) != MAGIC
+                    || header.getInt(4) != VERSION
+                    || header.getInt(8) != words.getLength()
+                    || header.getInt(12) != words.getCount()
+                    || header.getLong(16) != fingerprint(words)
+                    || channel.size() != fileSize(words.getLength(), words.getCount())) {
+                return null;
+            }
+            
+            MappedByteBuffer[] regions = map(channel, FileChannel.MapMode.READ_ONLY, words.getLength(), words.getCount());
+            return new FeedbackMatrix(words.getLength(), words.getCount(), regions);
+        }
+    }
+    
+    public static void build(Path path, DictionaryPartition words, ForkJoinPool pool) throws IOException {
+        int length = words.getLength();
+        int count = words.getCount();
+        long[] codes = new long[count];
+        for (int i = 0; i < count; i++) {
+            codes[i] = words.getCode(i);
+        }
+        
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer[] regions = map(channel, FileChannel.MapMode.READ_WRITE, length, count);
+            FeedbackMatrix matrix = new FeedbackMatrix(length, count, regions);
+            
+            pool.invoke(new BuildTask(matrix, codes, 0, count));
+            for (MappedByteBuffer region : regions) {
+                region.force();
+            }
+            
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(length).putInt(count).putLong(fingerprint(words));
+            header.position(0);
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, int length, int count)
+            throws IOException {
+        int cellSize = cellSize(length);
+        int rowsPerRegion = rowsPerRegion(count, cellSize);
+        int regionCount = count == 0 ? 0 : (count + rowsPerRegion - 1) / rowsPerRegion;
+        long rowSize = (long) count * cellSize;
+        
+        MappedByteBuffer[] regions = new MappedByteBuffer[regionCount];
+        for (int i = 0; i < regionCount; i++) {
+            int rows = Math.min(rowsPerRegion, count - i * rowsPerRegion);
+            regions[i] = channel.map(mode, HEADER_SIZE + (long) i * rowsPerRegion * rowSize, rows * rowSize);
+        }
+        return regions;
+    }
+    
+    private static int cellSize(int length) {
+        return Feedback.patternCount(length) <= 256 ? 1 : 2;
+    }
+    
+    private static int rowsPerRegion(int count, int cellSize) {
+        return (int) Math.max(1, REGION_SIZE / Math.max(1L, (long) count * cellSize));
+    }
+    
+    private static long fileSize(int length, int count) {
+        return HEADER_SIZE + (long) count * count * cellSize(length);
+    }
+    
+    private static long fingerprint(DictionaryPartition words) {
+        long hash = 1125899906842597L;
+        for (int i = 0; i < words.getCount(); i++) {
+            hash = 31 * hash + words.getCode(i);
+        }
+        return hash;
+    }
+    
+    public int getLength() {
+        return length;
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    public int get(int guess, int target) {
+        ByteBuffer region = regions[guess / rowsPerRegion];
+        int offset = ((guess % rowsPerRegion) * count + target) * cellSize;
+        return cellSize == 1 ? region.get(offset) & 0xFF : region.getShort(offset) & 0xFFFF;
+    }
+    
+    private void put(int guess, int target, int pattern) {
+        ByteBuffer region = regions[guess / rowsPerRegion];
+        int offset = ((guess % rowsPerRegion) * count + target) * cellSize;
+        if (cellSize == 1) {
+            region.put(offset, (byte) pattern);
+        } else {
+            region.putShort(offset, (short) pattern);
+        }
+    }
+    
+    private static final class BuildTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final FeedbackMatrix matrix;
+        private final long[] codes;
+        private final int from;
+        private final int to;
+        
+        BuildTask(FeedbackMatrix matrix, long[] codes, int from, int to) {
+            this.matrix = matrix;
+            this.codes = codes;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from > BUILD_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BuildTask(matrix, codes, from, mid), new BuildTask(matrix, codes, mid, to));
+                return;
+            }
+            
+            int[] letterCounts = Feedback.newLetterCounts();
+            for (int guess = from; guess < to; guess++) {
+                for (int target = 0; target < codes.length; target++) {
+                    matrix.put(guess, target, Feedback.score(codes[guess], codes[target], matrix.length, letterCounts));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.bloby.wordlik.utils;
+
+/**
+ * Seeded bijection on {@code [0, size)} that needs no table: a balanced Feistel network over the
+ * smallest even power of two covering {@code size}, with cycle walking to stay inside the range.
+ * Walking {@code get(0)}, {@code get(1)}, ... visits every value exactly once in shuffled order.
+ */
+public final class Permutation {
+    
+    private static final int ROUNDS = 4;
+    
+    private final int size;
+    private final int halfBits;
+    private final int halfMask;
+    private final int[] keys;
+    
+    public Permutation(int size, long seed) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Velikost permutace musí být kladná: " + size);
+        }
+        this.size = size;
+        
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, size - 1));
+        this.halfBits = Math.max(1, (bits + 1) / 2);
+        this.halfMask = (1 << halfBits) - 1;
+        
+        this.keys = new int[ROUNDS];
+        long state = seed;
+        for (int i = 0; i < ROUNDS; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            keys[i] = WordCode.hash(state);
+        }
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        
+        int value = index;
+        do {
+            value = encrypt(value);
+        } while (value >= size);
+        return value;
+    }
+    
+    private int encrypt(int value) {
+        int left = value >>> halfBits;
+        int right = value & halfMask;
+        for (int i = 0; i < ROUNDS; i++) {
+            int next = left ^ (WordCode.hash(((long) keys[i] << 32) | right) & halfMask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+}
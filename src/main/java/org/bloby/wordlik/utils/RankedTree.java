@@ -0,0 +1,140 @@
+package org.bloby.wordlik.utils;
+
+import java.util.Comparator;
+
+/**
+ * Order-statistic treap: a sorted set that also answers "what is at position i" and "how many
+ * elements come before x" in expected O(log n). Elements must be distinct under the comparator.
+ * Not thread-safe.
+ */
+public final class RankedTree<E> {
+    
+    private final Comparator<? super E> comparator;
+    private Node<E> root;
+    private long seed;
+    
+    public RankedTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+        this.seed = System.nanoTime();
+    }
+    
+    public int size() {
+        return size(root);
+    }
+    
+    public void add(E element) {
+        Node<E> node = new Node<>(element, WordCode.hash(seed += 0x9E3779B97F4A7C15L));
+        Node<E>[] parts = split(root, element, false);
+        root = merge(merge(parts[0], node), parts[1]);
+    }
+    
+    public boolean remove(E element) {
+        Node<E>[] parts = split(root, element, false);
+        Node<E>[] rest = split(parts[1], element, true);
+        root = merge(parts[0], rest[1]);
+        return rest[0] != null;
+    }
+    
+    /**
+     * Number of elements ordered strictly before {@code element}, which is its zero-based position
+     * when present.
+     */
+    public int rank(E element) {
+        int rank = 0;
+        Node<E> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(element, node.value);
+            if (cmp <= 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+    
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        
+        Node<E> node = root;
+        while (true) {
+            int left = size(node.left);
+            if (index < left) {
+                node = node.left;
+            } else if (index == left) {
+                return node.value;
+            } else {
+                index -= left + 1;
+                node = node.right;
+            }
+        }
+    }
+    
+    public void clear() {
+        root = null;
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Node<E>[] split(Node<E> node, E key, boolean inclusive) {
+        Node<E>[] parts = new Node[2];
+        if (node == null) {
+            return parts;
+        }
+        
+        int cmp = comparator.compare(node.value, key);
+        if (cmp < 0 || (inclusive && cmp == 0)) {
+            Node<E>[] right = split(node.right, key, inclusive);
+            node.right = right[0];
+            parts[0] = node.update();
+            parts[1] = right[1];
+        } else {
+            Node<E>[] left = split(node.left, key, inclusive);
+            node.left = left[1];
+            parts[0] = left[0];
+            parts[1] = node.update();
+        }
+        return parts;
+    }
+    
+    private Node<E> merge(Node<E> a, Node<E> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            return a.update();
+        }
+        b.left = merge(a, b.left);
+        return b.update();
+    }
+    
+    private static int size(Node<?> node) {
+        return node != null ? node.size : 0;
+    }
+    
+    private static final class Node<E> {
+        private final E value;
+        private final int priority;
+        private int size;
+        private Node<E> left;
+        private Node<E> right;
+        
+        private Node(E value, int priority) {
+            this.value = value;
+            this.priority = priority;
+            this.size = 1;
+        }
+        
+        private Node<E> update() {
+            size = 1 + size(left) + size(right);
+            return this;
+        }
+    }
+}
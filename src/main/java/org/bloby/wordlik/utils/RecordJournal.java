@@ -0,0 +1,511 @@
+package org.bloby.wordlik.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only store of the latest record per UUID. Appends are buffered in memory and reach disk
+ * on {@link #commit()}, one write and one fsync for the whole batch. Every record carries a CRC,
+ * so a torn tail left by a crash is detected and ignored on replay. A batch whose write fails is
+ * cut off the file again and kept for the next commit.
+ *
+ * <p>Records are read one at a time with {@link #read(UUID)}: records written since the last
+ * compaction are held in memory, everything older is looked up by binary search in the index of
+ * the memory-mapped snapshot. {@link #compact()} switches appends to a fresh journal generation,
+ * merges the snapshot with the records written so far into a new snapshot, renames it into place
+ * atomically and only then deletes the merged journals.
+ */
+public final class RecordJournal implements Closeable {
+    
+    public static final int MAGIC = 0x574C534A;
+    public static final int VERSION = 2;
+    
+    private static final int RECORD_HEADER = 4 + 4 + 16;
+    private static final int MAX_RECORD = 1 << 16;
+    private static final int SNAPSHOT_HEADER = 4 + 4 + 8 + 4;
+    private static final int INDEX_ENTRY = 16 + 4 + 4;
+    
+    private final Path folder;
+    private final String name;
+    private final Object commitLock;
+    private final Object compactLock;
+    private final Map<UUID, byte[]> recent;
+    private volatile Snapshot snapshot;
+    private ByteArrayOutputStream pending;
+    private FileChannel channel;
+    private long generation;
+    private long discardedBytes;
+    
+    public RecordJournal(Path folder, String name) {
+        this.folder = folder;
+        this.name = name;
+        this.commitLock = new Object();
+        this.compactLock = new Object();
+        this.recent = new ConcurrentHashMap<>();
+        this.pending = new ByteArrayOutputStream();
+    }
+    
+    /**
+     * Maps the snapshot and replays the journal generations written after it. Returns the number
+     * of distinct records in the store.
+     */
+    public int open() throws IOException {
+        Files.createDirectories(folder);
+        
+        long merged = -1;
+        Path path = snapshotPath();
+        if (Files.exists(path)) {
+            snapshot = Snapshot.open(path, recent);
+            merged = snapshot.generation;
+        }
+        
+        long last = merged;
+        for (long journal : journalGenerations()) {
+            if (journal <= merged || Files.size(journalPath(journal)) == 0) {
+                Files.deleteIfExists(journalPath(journal));
+                continue;
+            }
+            discardedBytes += readJournal(journalPath(journal), recent::put);
+            last = Math.max(last, journal);
+        }
+        
+        synchronized (this) {
+            generation = last + 1;
+            channel = openJournal(generation);
+        }
+        return size();
+    }
+    
+    public byte[] read(UUID key) {
+        byte[] record = recent.get(key);
+        if (record != null) {
+            return record;
+        }
+        
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        int index = current.indexOf(key);
+        return index >= 0 ? current.record(index) : null;
+    }
+    
+    public boolean contains(UUID key) {
+        if (recent.containsKey(key)) {
+            return true;
+        }
+        Snapshot current = snapshot;
+        return current != null && current.indexOf(key) >= 0;
+    }
+    
+    /**
+     * Visits the latest record of every key, in no particular order.
+     */
+    public void forEach(BiConsumer<UUID, byte[]> action) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            for (int i = 0; i < current.count; i++) {
+                UUID key = current.key(i);
+                if (!recent.containsKey(key)) {
+                    action.accept(key, current.record(i));
+                }
+            }
+        }
+        recent.forEach(action);
+    }
+    
+    public int size() {
+        int size = recent.size();
+        Snapshot current = snapshot;
+        if (current != null) {
+            for (int i = 0; i < current.count; i++) {
+                if (!recent.containsKey(current.key(i))) {
+                    size++;
+                }
+            }
+        }
+        return size;
+    }
+    
+    public synchronized void append(UUID key, byte[] record) {
+        if (record.length > MAX_RECORD) {
+            throw new IllegalArgumentException("Záznam je příliš velký: " + record.length + " B");
+        }
+        
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+        header.putInt(record.length);
+        header.putInt(checksum(key, record, 0, record.length));
+        header.putLong(key.getMostSignificantBits());
+        header.putLong(key.getLeastSignificantBits());
+        pending.write(header.array(), 0, RECORD_HEADER);
+        pending.write(record, 0, record.length);
+        recent.put(key, record);
+    }
+    
+    public void commit() throws IOException {
+        synchronized (commitLock) {
+            byte[] batch;
+            FileChannel target;
+            synchronized (this) {
+                if (pending.size() == 0 || channel == null) {
+                    return;
+                }
+                batch = pending.toByteArray();
+                pending = new ByteArrayOutputStream(Math.max(32, batch.length));
+                target = channel;
+            }
+            
+            long start = target.position();
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch);
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                target.force(false);
+            } catch (IOException e) {
+                requeue(target, start, batch);
+                throw e;
+            }
+        }
+    }
+    
+    private void requeue(FileChannel target, long start, byte[] batch) {
+        try {
+            target.truncate(start);
+        } catch (IOException ignored) {
+        }
+        
+        synchronized (this) {
+            ByteArrayOutputStream restored = new ByteArrayOutputStream(batch.length + pending.size());
+            restored.write(batch, 0, batch.length);
+            restored.write(pending.toByteArray(), 0, pending.size());
+            pending = restored;
+        }
+    }
+    
+    public void compact() throws IOException {
+        synchronized (compactLock) {
+            long merged;
+            Map<UUID, byte[]> frozen;
+            synchronized (commitLock) {
+                commit();
+                synchronized (this) {
+                    if (channel == null) {
+                        return;
+                    }
+                    channel.close();
+                    merged = generation;
+                    generation++;
+                    channel = openJournal(generation);
+                    frozen = new HashMap<>(recent);
+                }
+            }
+            
+            if (frozen.isEmpty()) {
+                Files.deleteIfExists(journalPath(merged));
+                return;
+            }
+            
+            Path path = snapshotPath();
+            Path temp = folder.resolve(name + ".snapshot.tmp");
+            writeSnapshot(temp, snapshot, new TreeMap<>(frozen), merged);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            
+            snapshot = Snapshot.open(path, null);
+            for (Map.Entry<UUID, byte[]> entry : frozen.entrySet()) {
+                recent.remove(entry.getKey(), entry.getValue());
+            }
+            
+            for (long journal : journalGenerations()) {
+                if (journal <= merged) {
+                    Files.deleteIfExists(journalPath(journal));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Closes the store and removes its snapshot and every journal generation.
+     */
+    public void delete() throws IOException {
+        synchronized (compactLock) {
+            synchronized (commitLock) {
+                synchronized (this) {
+                    if (channel != null) {
+                        channel.close();
+                        channel = null;
+                    }
+                    pending = new ByteArrayOutputStream();
+                }
+            }
+            
+            for (long journal : journalGenerations()) {
+                Files.deleteIfExists(journalPath(journal));
+            }
+            Files.deleteIfExists(snapshotPath());
+            snapshot = null;
+            recent.clear();
+        }
+    }
+    
+    public long getDiscardedBytes() {
+        return discardedBytes;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        synchronized (commitLock) {
+            commit();
+            synchronized (this) {
+                if (channel != null) {
+                    channel.close();
+                    channel = null;
+                }
+            }
+        }
+    }
+    
+    private Path snapshotPath() {
+        return folder.resolve(name + ".snapshot");
+    }
+    
+    private Path journalPath(long journal) {
+        return folder.resolve(name + "-" + journal + ".journal");
+    }
+    
+    private FileChannel openJournal(long journal) throws IOException {
+        return FileChannel.open(journalPath(journal), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+    
+    private long[] journalGenerations() throws IOException {
+        TreeMap<Long, Path> found = new TreeMap<>();
+        String prefix = name + "-";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder, prefix + "*.journal")) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                try {
+                    found.put(Long.parseLong(fileName.substring(prefix.length(), fileName.length() - 8)), file);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+            }
+        }
+        
+        long[] generations = new long[found.size()];
+        int i = 0;
+        for (long journal : found.keySet()) {
+            generations[i++] = journal;
+        }
+        return generations;
+    }
+    
+    /**
+     * Replays the intact prefix of a journal file and returns the number of bytes left over, which
+     * is non-zero only if the last batch was torn by a crash.
+     */
+    private long readJournal(Path path, BiConsumer<UUID, byte[]> replay) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        while (buffer.remaining() >= RECORD_HEADER) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int crc = buffer.getInt();
+            UUID key = new UUID(buffer.getLong(), buffer.getLong());
+            if (length < 0 || length > MAX_RECORD || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            
+            byte[] record = new byte[length];
+            buffer.get(record);
+            if (checksum(key, record, 0, length) != crc) {
+                buffer.position(start);
+                break;
+            }
+            replay.accept(key, record);
+        }
+        return buffer.remaining();
+    }
+    
+    private static void writeSnapshot(Path path, Snapshot previous, TreeMap<UUID, byte[]> overlay, long merged)
+            throws IOException {
+        int previousCount = previous != null ? previous.count : 0;
+        UUID[] keys = new UUID[previousCount + overlay.size()];
+        byte[][] records = new byte[keys.length][];
+        int count = 0;
+        long dataSize = 0;
+        
+        int i = 0;
+        Map.Entry<UUID, byte[]> next = overlay.pollFirstEntry();
+        while (i < previousCount || next != null) {
+            UUID stored = i < previousCount ? previous.key(i) : null;
+            int cmp = stored == null ? 1 : next == null ? -1 : stored.compareTo(next.getKey());
+            if (cmp < 0) {
+                keys[count] = stored;
+                records[count] = previous.record(i);
+                i++;
+            } else {
+                keys[count] = next.getKey();
+                records[count] = next.getValue();
+                next = overlay.pollFirstEntry();
+                if (cmp == 0) {
+                    i++;
+                }
+            }
+            dataSize += records[count].length;
+            count++;
+        }
+        
+        long size = SNAPSHOT_HEADER + (long) count * INDEX_ENTRY + dataSize + 4;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot je příliš velký: " + size + " B");
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(merged);
+        buffer.putInt(count);
+        
+        int offset = SNAPSHOT_HEADER + count * INDEX_ENTRY;
+        for (int k = 0; k < count; k++) {
+            buffer.putLong(keys[k].getMostSignificantBits());
+            buffer.putLong(keys[k].getLeastSignificantBits());
+            buffer.putInt(offset);
+            buffer.putInt(records[k].length);
+            offset += records[k].length;
+        }
+        for (int k = 0; k < count; k++) {
+            buffer.put(records[k]);
+        }
+        
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+    }
+    
+    private static int checksum(UUID key, byte[] record, int offset, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer id = ByteBuffer.allocate(16);
+        id.putLong(key.getMostSignificantBits());
+        id.putLong(key.getLeastSignificantBits());
+        crc.update(id.array(), 0, 16);
+        crc.update(record, offset, length);
+        return (int) crc.getValue();
+    }
+    
+    private static final class Snapshot {
+        private final ByteBuffer buffer;
+        private final long generation;
+        private final int count;
+        
+        private Snapshot(ByteBuffer buffer, long generation, int count) {
+            this.buffer = buffer;
+            this.generation = generation;
+            this.count = count;
+        }
+        
+        /**
+         * Maps a snapshot file. A version 1 snapshot has no index; its records are loaded into
+         * {@code legacy} instead and rewritten in the current format by the next compaction.
+         */
+        private static Snapshot open(Path path, Map<UUID, byte[]> legacy) throws IOException {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            
+            if (buffer.limit() < SNAPSHOT_HEADER + 4 || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Soubor " + path + " není snapshot záznamů");
+            }
+            int version = buffer.getInt(4);
+            if (version != VERSION && (version != 1 || legacy == null)) {
+                throw new IOException("Nepodporovaná verze snapshotu: " + version);
+            }
+            
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(0).limit(buffer.limit() - 4));
+            if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+                throw new IOException("Poškozený snapshot " + path + ": nesouhlasí kontrolní součet");
+            }
+            
+            long generation = buffer.getLong(8);
+            int count = buffer.getInt(16);
+            if (version == 1) {
+                ByteBuffer records = buffer.duplicate().position(SNAPSHOT_HEADER);
+                for (int i = 0; i < count; i++) {
+                    UUID key = new UUID(records.getLong(), records.getLong());
+                    byte[] record = new byte[records.getInt()];
+                    records.get(record);
+                    legacy.put(key, record);
+                }
+                return new Snapshot(ByteBuffer.allocate(0), generation, 0);
+            }
+            
+            if (count < 0 || SNAPSHOT_HEADER + (long) count * INDEX_ENTRY > buffer.limit() - 4) {
+                throw new IOException("Poškozený snapshot " + path + ": index mimo rozsah souboru");
+            }
+            return new Snapshot(buffer, generation, count);
+        }
+        
+        private UUID key(int index) {
+            int entry = SNAPSHOT_HEADER + index * INDEX_ENTRY;
+            return new UUID(buffer.getLong(entry), buffer.getLong(entry + 8));
+        }
+        
+        private byte[] record(int index) {
+            int entry = SNAPSHOT_HEADER + index * INDEX_ENTRY;
+            byte[] record = new byte[buffer.getInt(entry + 20)];
+            buffer.get(buffer.getInt(entry + 16), record);
+            return record;
+        }
+        
+        private int indexOf(UUID key) {
+            long most = key.getMostSignificantBits();
+            long least = key.getLeastSignificantBits();
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int entry = SNAPSHOT_HEADER + mid * INDEX_ENTRY;
+                int cmp = Long.compare(buffer.getLong(entry), most);
+                if (cmp == 0) {
+                    cmp = Long.compare(buffer.getLong(entry + 8), least);
+                }
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.bloby.wordlik.utils;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitters sketch with a fixed number of counters. Counters are kept sorted by
+ * count, highest first, so the top N are simply the first N slots. An unmonitored item takes over
+ * the smallest counter and inherits its count as the error bound; any item seen more than
+ * {@code total / capacity} times is guaranteed to be monitored.
+ */
+public final class SpaceSaving<T> {
+    
+    private final Object[] items;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<T, Integer> positions;
+    private int size;
+    
+    public SpaceSaving(int capacity) {
+        this.items = new Object[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+        this.size = 0;
+    }
+    
+    public synchronized void offer(T item) {
+        Integer position = positions.get(item);
+        int slot;
+        if (position != null) {
+            slot = position;
+        } else if (size < items.length) {
+            slot = size++;
+            items[slot] = item;
+            counts[slot] = 0;
+            errors[slot] = 0;
+            positions.put(item, slot);
+        } else {
+            slot = size - 1;
+            positions.remove(items[slot]);
+            items[slot] = item;
+            errors[slot] = counts[slot];
+            positions.put(item, slot);
+        }
+        increment(slot);
+    }
+    
+    private void increment(int slot) {
+        long count = counts[slot];
+        int low = 0;
+        int high = slot;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (counts[mid] > count) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        
+        if (low != slot) {
+            swap(low, slot);
+        }
+        counts[low] = count + 1;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void swap(int a, int b) {
+        Object item = items[a];
+        items[a] = items[b];
+        items[b] = item;
+        
+        long count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        
+        long error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+        
+        positions.put((T) items[a], a);
+        positions.put((T) items[b], b);
+    }
+    
+    @SuppressWarnings("unchecked")
+    public synchronized List<Map.Entry<T, Long>> top(int limit) {
+        int n = Math.min(limit, size);
+        List<Map.Entry<T, Long>> top = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            top.add(new AbstractMap.SimpleImmutableEntry<>((T) items[i], counts[i]));
+        }
+        return top;
+    }
+    
+    public synchronized long estimate(T item) {
+        Integer position = positions.get(item);
+        return position != null ? counts[position] : 0;
+    }
+    
+    public synchronized long error(T item) {
+        Integer position = positions.get(item);
+        return position != null ? errors[position] : 0;
+    }
+    
+    public int capacity() {
+        return items.length;
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+    
+    public synchronized void clear() {
+        for (int i = 0; i < size; i++) {
+            items[i] = null;
+        }
+        positions.clear();
+        size = 0;
+    }
+}
@@ -0,0 +1,72 @@
+package org.bloby.wordlik.utils;
+
+public final class WordCode {
+    
+    public static final int BITS_PER_LETTER = 6;
+    public static final int MAX_LENGTH = Long.SIZE / BITS_PER_LETTER;
+    public static final long INVALID = -1L;
+    
+    private static final long LETTER_MASK = (1L << BITS_PER_LETTER) - 1;
+    
+    private WordCode() {
+    }
+    
+    public static long encode(CharSequence word) {
+        int length = word.length();
+        if (length == 0 || length > MAX_LENGTH) {
+            return INVALID;
+        }
+        
+        long code = 0;
+        for (int i = 0; i < length; i++) {
+            int ordinal = Alphabet.ordinal(word.charAt(i));
+            if (ordinal == 0) {
+                return INVALID;
+            }
+            code |= (long) ordinal << (i * BITS_PER_LETTER);
+        }
+        return code;
+    }
+    
+    public static long encode(byte[] ordinals) {
+        long code = 0;
+        for (int i = 0; i < ordinals.length; i++) {
+            code |= (long) ordinals[i] << (i * BITS_PER_LETTER);
+        }
+        return code;
+    }
+    
+    public static String decode(long code) {
+        int length = length(code);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = Alphabet.letter(letterAt(code, i));
+        }
+        return new String(chars);
+    }
+    
+    public static int letterAt(long code, int position) {
+        return (int) ((code >>> (position * BITS_PER_LETTER)) & LETTER_MASK);
+    }
+    
+    public static int length(long code) {
+        if (code == INVALID) {
+            return 0;
+        }
+        int length = 0;
+        while (code != 0) {
+            code >>>= BITS_PER_LETTER;
+            length++;
+        }
+        return length;
+    }
+    
+    public static int hash(long code) {
+        code ^= code >>> 33;
+        code *= 0xff51afd7ed558ccdL;
+        code ^= code >>> 33;
+        code *= 0xc4ceb9fe1a85ec53L;
+        code ^= code >>> 33;
+        return (int) code;
+    }
+}
@@ -0,0 +1,37 @@
+package org.bloby.wordlik.utils;
+
+public final class WordCursor {
+    
+    private final long[] set;
+    private int block;
+    private long remaining;
+    
+    WordCursor(long[] set) {
+        this.set = set;
+        this.block = 0;
+        this.remaining = set.length > 0 ? set[0] : 0;
+    }
+    
+    public boolean hasNext() {
+        while (remaining == 0) {
+            if (++block >= set.length) {
+                return false;
+            }
+            remaining = set[block];
+        }
+        return true;
+    }
+    
+    public int next() {
+        if (!hasNext()) {
+            return -1;
+        }
+        int ordinal = (block << 6) + Long.numberOfTrailingZeros(remaining);
+        remaining &= remaining - 1;
+        return ordinal;
+    }
+    
+    public int count() {
+        return WordIndex.count(set);
+    }
+}
@@ -0,0 +1,151 @@
+package org.bloby.wordlik.utils;
+
+public final class WordIndex {
+    
+    private static final int LETTERS = Alphabet.SIZE + 1;
+    
+    private final int wordCount;
+    private final int length;
+    private final long[] empty;
+    private final long[] all;
+    private final long[][] positionLetters;
+    private final long[][] presentLetters;
+    
+    private WordIndex(int wordCount, int length) {
+        this.wordCount = wordCount;
+        this.length = length;
+        this.empty = new long[blocks(wordCount)];
+        this.all = new long[empty.length];
+        this.positionLetters = new long[length * LETTERS][];
+        this.presentLetters = new long[LETTERS][];
+        
+        for (int i = 0; i < wordCount; i++) {
+            all[i >>> 6] |= 1L << i;
+        }
+    }
+    
+    static WordIndex build(DictionaryPartition partition) {
+        WordIndex index = new WordIndex(partition.getCount(), partition.getLength());
+        
+        for (int ordinal = 0; ordinal < partition.getCount(); ordinal++) {
+            int block = ordinal >>> 6;
+            long bit = 1L << ordinal;
+            for (int position = 0; position < partition.getLength(); position++) {
+                int letter = partition.letterAt(ordinal, position);
+                index.bits(index.positionLetters, position * LETTERS + letter)[block] |= bit;
+                index.bits(index.presentLetters, letter)[block] |= bit;
+            }
+        }
+        
+        for (int i = 0; i < index.positionLetters.length; i++) {
+            if (index.positionLetters[i] == null) {
+                index.positionLetters[i] = index.empty;
+            }
+        }
+        for (int i = 0; i < index.presentLetters.length; i++) {
+            if (index.presentLetters[i] == null) {
+                index.presentLetters[i] = index.empty;
+            }
+        }
+        return index;
+    }
+    
+    private long[] bits(long[][] table, int slot) {
+        long[] bits = table[slot];
+        if (bits == null) {
+            bits = new long[empty.length];
+            table[slot] = bits;
+        }
+        return bits;
+    }
+    
+    private static int blocks(int wordCount) {
+        return (wordCount + 63) >>> 6;
+    }
+    
+    public int getWordCount() {
+        return wordCount;
+    }
+    
+    public long[] newFullSet() {
+        return all.clone();
+    }
+    
+    public long[] newEmptySet() {
+        return new long[empty.length];
+    }
+    
+    public void retainAt(long[] set, int position, int letter) {
+        and(set, positionBits(position, letter));
+    }
+    
+    public void removeAt(long[] set, int position, int letter) {
+        andNot(set, positionBits(position, letter));
+    }
+    
+    public void retainContaining(long[] set, int letter) {
+        and(set, presentBits(letter));
+    }
+    
+    public void removeContaining(long[] set, int letter) {
+        andNot(set, presentBits(letter));
+    }
+    
+    public void retainPattern(long[] set, CharSequence pattern) {
+        if (pattern.length() != length) {
+            clear(set);
+            return;
+        }
+        
+        for (int position = 0; position < length; position++) {
+            char c = pattern.charAt(position);
+            if (c != '?') {
+                retainAt(set, position, Alphabet.ordinal(c));
+            }
+        }
+    }
+    
+    private long[] positionBits(int position, int letter) {
+        if (letter <= 0 || letter > Alphabet.SIZE || position < 0 || position >= length) {
+            return empty;
+        }
+        return positionLetters[position * LETTERS + letter];
+    }
+    
+    private long[] presentBits(int letter) {
+        if (letter <= 0 || letter > Alphabet.SIZE) {
+            return empty;
+        }
+        return presentLetters[letter];
+    }
+    
+    public WordCursor cursor(long[] set) {
+        return new WordCursor(set);
+    }
+    
+    public static void and(long[] set, long[] mask) {
+        for (int i = 0; i < set.length; i++) {
+            set[i] &= mask[i];
+        }
+    }
+    
+    public static void andNot(long[] set, long[] mask) {
+        for (int i = 0; i < set.length; i++) {
+            set[i] &= ~mask[i];
+        }
+    }
+    
+    public static void clear(long[] set) {
+        for (int i = 0; i < set.length; i++) {
+            set[i] = 0;
+        }
+    }
+    
+    public static int count(long[] set) {
+        int count = 0;
+        for (long block : set) {
+            count += Long.bitCount(block);
+        }
+        return count;
+    }
+}
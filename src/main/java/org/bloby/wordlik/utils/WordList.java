@@ -1,323 +1,329 @@
 package org.bloby.wordlik.utils;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 public class WordList {
     
-    private final java.util.List<String> words;
-    private final Set<String> wordSet;
-    private final Random random;
-    private final Map<String, Integer> wordDifficulty;
-    private final Map<Character, java.util.List<String>> wordsByFirstLetter;
-    private int totalWordsUsed;
-    
-    public WordList() {
-        this.words = new ArrayList<>();
-        this.wordSet = new HashSet<>();
-        this.random = new Random();
-        this.wordDifficulty = new HashMap<>();
-        this.wordsByFirstLetter = new HashMap<>();
-        this.totalWordsUsed = 0;
-        loadWords();
-        categorizeWords();
-        calculateDifficulty();
-    }
-    
-    private void loadWords() {
-        words.addAll(Arrays.asList(
-       "ahoj", "auto", "barva", "beran", "blesk",
-            "bobek", "bouře", "brána", "bratr", "břicho",
-            "bříza", "brzda", "bufet", "cesta", "cihla",
-            "citát", "česko", "číslo", "dáma", "deska",
-            "dílo", "divák", "dopis", "dráha", "drama",
-            "dřevo", "duha", "duše", "dvěře", "džbán",
-            "fazol", "film", "flétna", "forma", "fotka",
-            "fraška", "gesto", "had", "hala", "halas",
-            "harfa", "havran", "herec", "hlava", "hlína",
-            "hluk", "hmat", "hnízdo", "hodně", "holka",
-            "hora", "houba", "houska", "hovor", "hrabě",
-            "hrad", "hrana", "hrnek", "hrob", "hroch",
-            "hrom", "hruška", "hrůza", "hřbet", "hřích",
-            "hudba", "hurá", "chata", "chlad", "chleb",
-            "chlup", "chmel", "chodba", "chyba", "chytrý",
-            "jabko", "jahoda", "jaro", "jasno", "jelen",
-            "jetel", "ježek", "jídlo", "jih", "jméno",
-            "jóga", "kabel", "kabát", "kámen", "karta",
-            "kašel", "kaše", "káva", "kazeta", "kbelík",
-            "kečup", "keř", "kino", "kladiv", "klec",
-            "klenot", "kletba", "klíč", "klid", "klima",
-            "kluk", "kmen", "kniha", "knoflík", "kočár",
-            "kočka", "kohout", "koláč", "kolej", "kolo",
-            "komín", "konec", "koník", "kopeč", "kopyt",
-            "korek", "koření", "kořen", "košík", "kosti",
-            "košile", "koza", "král", "kráva", "krev",
-            "krize", "krok", "kruž", "křídlo", "kříž",
-            "kuře", "kůra", "kůže", "kužel", "květy",
-            "kytka", "labuť", "lampa", "láska", "látka",
-            "lavic", "led", "léčba", "lehce", "lehký",
-            "lékař", "lepek", "lesk", "letáč", "letad",
-            "lidé", "liják", "lípa", "lísek", "list",
-            "litr", "loď", "logik", "loket", "losos",
-            "louka", "lůžko", "lyže", "malba", "malíř",
-            "málo", "malý", "máma", "mapa", "maso",
-            "máslo", "matka", "med", "medvě", "měsíc",
-            "město", "metan", "metro", "meč", "midl",
-            "milý", "mince", "míra", "mísa", "místo",
-            "mléko", "mlha", "mluvit", "mladý", "mnoho",
-            "mobil", "mocný", "model", "modrý", "mokrý",
-            "motor", "mouka", "mozek", "mráz", "mrak",
-            "mramor", "mrkat", "mrkev", "mrtvý", "mříž",
-            "muška", "musli", "myš", "mýdlo", "mýtus",
-            "nábytek", "náčrt", "nádob", "nádrž", "náhod",
-            "nájem", "nákup", "náměs", "nápad", "nápoj",
-            "národ", "nástroj", "nátek", "návod", "návyk",
-            "nebez", "neděl", "nehod", "němec", "nést",
-            "netop", "nevěs", "nikdo", "nikol", "nitro",
-            "Nobel", "nohav", "norek", "normál", "nosič",
-            "notář", "novín", "nový", "nůž", "nudle",
-            "nula", "obálk", "oběd", "obchod", "obec",
-            "oběť", "objev", "oblak", "oblek", "oblast",
-            "obleč", "obraz", "obsah", "obsaz", "obtíž",
-            "obyčej", "oceán", "ocet", "ocel", "ochran",
-            "odběr", "odchod", "oddíl", "oděv", "odkaz",
-            "odkud", "odlet", "odměn", "odmít", "odpad",
-            "odpis", "odpor", "odpus", "odsud", "odvah",
-            "odvět", "odvod", "odvoz", "ohař", "ohlas",
-            "ohled", "ohnisk", "ohrad", "ohroč", "ohyb",
-            "okamž", "okno", "okol", "okoun", "okres",
-            "okruh", "okřík", "olej", "oliva", "olovo",
-            "omáčk", "omezit", "omluv", "omyl", "opačn",
-            "opak", "opasek", "opera", "opěrk", "opice",
-            "oprav", "optik", "oráč", "oranž", "orati",
-            "orel", "orgán", "orloj", "orlík", "ortel",
-            "oslavit", "osoba", "osten", "ostře", "ostro",
-            "ostud", "oštěp", "otáze", "otázk", "otec",
-            "otisk", "otoč", "otrok", "otvír", "ovčín",
-            "ovečk", "oves", "ovin", "ovlád", "ovoce",
-            "ozdob", "pablo", "pacht", "padák", "padat",
-            "padel", "pahýl", "pajda", "pakt", "palác",
-            "palba", "palec", "paliv", "palma", "pálit",
-            "památ", "pamět", "panel", "panen", "paník",
-            "panna", "pánsk", "papež", "papír", "papri",
-            "pára", "paráda", "pardál", "parfé", "parkán",
-            "parní", "paroh", "parta", "partie", "paruk",
-            "pařát", "páře", "pásek", "pásmo", "pasta",
-            "patce", "paten", "páter", "pátky", "patro",
-            "patron", "pažit", "pařát", "pecen", "pečet",
-            "pečiv", "péče", "pedagog", "pedál", "pekař",
-            "pékat", "peklo", "peníz", "penze", "pepře",
-            "pera", "perla", "person", "peruť", "pěna",
-            "pění", "pěst", "pěšák", "pětka", "pěvec",
-            "piano", "pídit", "piják", "pikle", "pilot",
-            "píle", "pílit", "písař", "písek", "píseň",
-            "pískov", "pitka", "pitvá", "pivář", "pivot",
-            "pivko", "plaid", "pláň", "plán", "planý",
-            "plast", "plato", "plátě", "platí", "plató",
-            "plávat", "plazy", "pláč", "pláče", "plec",
-            "plemé", "ples", "plete", "pletý", "pleť",
-            "pleva", "plich", "plíce", "plíše", "plnen",
-            "plný", "ploce", "ploch", "plodek", "plodí",
-            "plošn", "plout", "plová", "plovák", "plst",
-            "pluh", "pluk", "plůdek", "plutov", "plvat",
-            "plyn", "plyně", "počal", "počás", "počet",
-            "počít", "počme", "počně", "počta", "podél",
-            "podát", "poděl", "podíl", "podklad", "podle",
-            "podne", "podob", "podol", "podpor", "podraz",
-            "podří", "podstat", "podvad", "podvoz", "podzim",
-            "pogro", "pohád", "pohan", "pohár", "pohled",
-            "pohov", "pohro", "pohřb", "pohyb", "pochod",
-            "pojat", "pojem", "pojis", "pojit", "pokaz",
-            "poklád", "pokle", "pokol", "pokoř", "pokos",
-            "pokož", "pokrč", "pokro", "pokrm", "pokut",
-            "polář", "pole", "polej", "polen", "poleč",
-            "polév", "police", "polit", "polka", "polní",
-            "polno", "polom", "polonit", "polož", "pomád",
-            "pomal", "poměr", "pomez", "pomlu", "pomně",
-            "pomni", "pomoc", "pomost", "pompa", "pomst",
-            "ponač", "poněk", "ponor", "ponos", "ponož",
-            "popas", "popát", "popel", "popis", "popič",
-            "pople", "popli", "popud", "popře", "popři",
-            "porad", "poraz", "porod", "poros", "poroč",
-            "poruč", "poruk", "poruš", "pořád", "pořez",
-            "pořid", "posel", "posen", "posez", "posíl",
-            "posil", "poskl", "posko", "poskr", "posla",
-            "posle", "posluž", "posmě", "posta", "posto",
-            "posun", "pošep", "poškr", "pošle", "pošli",
-            "poštík", "pošva", "potác", "potaz", "poteč",
-            "potěš", "potíc", "potka", "potla", "potmě",
-            "potok", "poton", "potop", "potor", "potře",
-            "potuc", "potuž", "potýč", "potýk", "pouč",
-            "pouch", "poudr", "pouhe", "pouka", "pouko",
-            "pouse", "pousť", "pouta", "pouto", "pouza",
-            "použít", "považ", "povaz", "pověd", "pověra",
-            "pověs", "povět", "pověz", "povez", "povin",
-            "povla", "povle", "povli", "povlo", "povod",
-            "povol", "povor", "povos", "povoz", "povrs",
-            "povst", "povre", "povro", "povýš", "povzb",
-            "povze", "povzn", "pozad", "pozám", "pozdě",
-            "pozem", "pozla", "pozli", "pozlo", "pozme",
-            "pozná", "pozně", "pozni", "pozor", "pozos",
-            "pozva", "pozve", "požád", "požár", "požár",
-            "požic", "požít", "poživ", "praba", "prach",
-            "práce", "prací", "prádl", "práh", "prají",
-            "prásk", "prato", "prává", "pravd", "pravo",
-            "práže", "praže", "praží", "pražk", "prcek",
-            "prcha", "prcht", "prémi", "prima", "princ",
-            "prior", "prkno", "proch", "profi", "prohl",
-            "proje", "propa", "prorok", "prosa", "prose",
-            "prosi", "prosím", "proso", "prost", "proše",
-            "proti", "prout", "prova", "prove", "provl",
-            "provo", "proza", "proze", "prožd", "prože",
-            "proži", "prsal", "prsen", "prsta", "první",
-            "prvok", "pryč", "prýsk", "prýšt", "psali",
-            "psal", "psane", "psaní", "psané", "psaž",
-            "psík", "psota", "psten", "pstruh", "psych",
-            "ptač", "ptáče", "pták", "ptáko", "ptali",
-            "ptáme", "ptát", "publi", "pubes", "pučák",
-            "puden", "pudín", "pudit", "pudlo", "pudová",
-            "púč", "pudel", "pukač", "pukal", "pukan",
-            "pukat", "pukl", "pukla", "pukle", "pukli",
-            "pulce", "pulec", "pulír", "pulos", "půlka",
-            "pulse", "půlí", "puman", "pumič", "pumpa",
-            "pumpo", "punč", "punče", "punek", "puník",
-            "purél", "purkr", "púsa", "půsat", "pusík",
-            "pusit", "pusta", "puste", "pusti", "pusto",
-            "pustý", "pustn", "pušče", "pušit", "pušká",
-            "puška", "putát", "putik", "putna", "putni",
-            "putov", "putře", "putří", "putýk", "putza",
-            "pýcha", "pýří", "pýtal", "pytče", "pythá",
-            "pytlá", "pytlé", "pýval", "pžená"
-        ));
+    public static final String SOURCE_FILE = "words.txt";
+    public static final String DICTIONARY_FILE = "dictionary.bin";
+    public static final int WORD_LENGTH = 5;
+    
+    private static final ThreadLocal<int[]> LETTER_COUNTS = ThreadLocal.withInitial(Feedback::newLetterCounts);
+    
+    private final Path source;
+    private final Path compiled;
+    private final AtomicReference<Snapshot> snapshot;
+    private final LongAdder totalWordsUsed;
+    private final Object reloadLock;
+    
+    public WordList(File dataFolder) throws IOException {
+        this(dataFolder, WORD_LENGTH);
+    }
+    
+    public WordList(File dataFolder, int defaultLength) throws IOException {
+        this.source = new File(dataFolder, SOURCE_FILE).toPath();
+        this.compiled = new File(dataFolder, DICTIONARY_FILE).toPath();
+        this.snapshot = new AtomicReference<>(loadSnapshot(defaultLength, false));
+        this.totalWordsUsed = new LongAdder();
+        this.reloadLock = new Object();
+    }
+    
+    private Snapshot loadSnapshot(int defaultLength, boolean force) throws IOException {
+        if (force || !DictionaryCompiler.isUpToDate(source, compiled)) {
+            DictionaryCompiler.compile(source, compiled);
+        }
         
-        for (String word : words) {
-            wordSet.add(word.toLowerCase());
+        Dictionary dictionary = Dictionary.open(compiled);
+        DictionaryPartition words = dictionary.getPartition(defaultLength);
+        if (words == null || words.getCount() == 0) {
+            throw new IOException("Slovník neobsahuje žádná slova o délce " + defaultLength);
         }
+        return new Snapshot(dictionary, defaultLength, words);
     }
     
-    private void categorizeWords() {
-        for (String word : words) {
-            char firstLetter = word.charAt(0);
-            wordsByFirstLetter.computeIfAbsent(firstLetter, k -> new ArrayList<>()).add(word);
+    /**
+     * Recompiles and reopens the dictionary, then swaps it in. Games already running keep the
+     * partition they started with; everything started afterwards sees the new words. Meant to be
+     * called off the main thread.
+     */
+    public Dictionary reload(int defaultLength) throws IOException {
+        synchronized (reloadLock) {
+            Snapshot next = loadSnapshot(defaultLength, true);
+            snapshot.set(next);
+            return next.dictionary;
         }
     }
     
-    private void calculateDifficulty() {
-        Set<Character> commonLetters = new HashSet<>(Arrays.asList(
-            'a', 'e', 'i', 'o', 'u', 'n', 's', 't', 'r', 'l'
-        ));
-        
-        for (String word : words) {
-            int difficulty = 5;
-            Set<Character> uniqueLetters = new HashSet<>();
-            
-            for (char c : word.toCharArray()) {
-                uniqueLetters.add(c);
-                if (!commonLetters.contains(c)) {
-                    difficulty += 1;
-                }
-            }
-            
-            if (uniqueLetters.size() == 5) {
-                difficulty += 2;
-            }
-            
-            wordDifficulty.put(word, difficulty);
-        }
+    private Snapshot current() {
+        return snapshot.get();
     }
     
     public String getRandomWord() {
-        totalWordsUsed++;
-        return words.get(random.nextInt(words.size()));
+        return getRandomWord(current().words);
+    }
+    
+    public long getRandomWordCode() {
+        return getRandomWordCode(current().words);
+    }
+    
+    public String getRandomWord(int length) {
+        DictionaryPartition partition = getPartition(length);
+        return partition != null ? getRandomWord(partition) : getRandomWord();
+    }
+    
+    public long getRandomWordCode(int length) {
+        DictionaryPartition partition = getPartition(length);
+        return partition != null ? getRandomWordCode(partition) : getRandomWordCode();
+    }
+    
+    public String getRandomWord(DictionaryPartition partition) {
+        totalWordsUsed.increment();
+        return partition.getWord(ThreadLocalRandom.current().nextInt(partition.getCount()));
+    }
+    
+    public long getRandomWordCode(DictionaryPartition partition) {
+        totalWordsUsed.increment();
+        return partition.getCode(ThreadLocalRandom.current().nextInt(partition.getCount()));
     }
     
     public String getRandomWordByDifficulty(int minDifficulty, int maxDifficulty) {
-        java.util.List<String> filtered = words.stream()
-            .filter(w -> {
-                int diff = wordDifficulty.getOrDefault(w, 5);
-                return diff >= minDifficulty && diff <= maxDifficulty;
-            })
-            .collect(Collectors.toList());
+        DictionaryPartition words = current().words;
+        int start = words.getDifficultyStart(minDifficulty);
+        int end = words.getDifficultyEnd(maxDifficulty);
         
-        if (filtered.isEmpty()) {
-            return getRandomWord();
+        if (start >= end) {
+            return getRandomWord(words);
         }
         
-        return filtered.get(random.nextInt(filtered.size()));
+        totalWordsUsed.increment();
+        int index = start + ThreadLocalRandom.current().nextInt(end - start);
+        return words.getWord(words.getOrdinalByDifficulty(index));
     }
     
     public String getRandomWordByFirstLetter(char letter) {
-        java.util.List<String> filtered = wordsByFirstLetter.get(Character.toLowerCase(letter));
-        if (filtered == null || filtered.isEmpty()) {
-            return getRandomWord();
+        DictionaryPartition words = current().words;
+        int ordinal = Alphabet.ordinal(letter);
+        if (ordinal == 0) {
+            return getRandomWord(words);
+        }
+        
+        int start = words.getFirstLetterStart(ordinal);
+        int end = words.getFirstLetterEnd(ordinal);
+        if (start == end) {
+            return getRandomWord(words);
         }
-        return filtered.get(random.nextInt(filtered.size()));
+        totalWordsUsed.increment();
+        return words.getWord(start + ThreadLocalRandom.current().nextInt(end - start));
     }
     
     public boolean isValidWord(String word) {
-        return wordSet.contains(word.toLowerCase());
+        DictionaryPartition partition = getPartition(word.length());
+        return partition != null && partition.indexOf(word) >= 0;
+    }
+    
+    public boolean isValidWord(long code) {
+        DictionaryPartition partition = getPartition(WordCode.length(code));
+        return partition != null && partition.indexOf(code) >= 0;
+    }
+    
+    public long encode(CharSequence word) {
+        return WordCode.encode(word);
+    }
+    
+    public String decode(long code) {
+        return WordCode.decode(code);
     }
     
     public java.util.List<String> getAllWords() {
-        return new ArrayList<>(words);
+        DictionaryPartition words = current().words;
+        java.util.List<String> all = new ArrayList<>(words.getCount());
+        for (int i = 0; i < words.getCount(); i++) {
+            all.add(words.getWord(i));
+        }
+        return all;
     }
     
     public int getWordCount() {
-        return words.size();
+        return current().words.getCount();
+    }
+    
+    public int getWordCount(int length) {
+        return current().dictionary.getWordCount(length);
     }
     
     public int getDifficulty(String word) {
-        return wordDifficulty.getOrDefault(word.toLowerCase(), 5);
+        DictionaryPartition partition = getPartition(word.length());
+        int ordinal = partition != null ? partition.indexOf(word) : -1;
+        return ordinal >= 0 ? partition.getDifficulty(ordinal) : 5;
+    }
+    
+    public double getExpectedGuesses(String word) {
+        DictionaryPartition partition = getPartition(word.length());
+        int ordinal = partition != null ? partition.indexOf(word) : -1;
+        return ordinal >= 0 ? partition.getExpectedGuesses(ordinal) : 0.0;
     }
     
     public int getTotalWordsUsed() {
-        return totalWordsUsed;
+        return totalWordsUsed.intValue();
     }
     
-    public java.util.List<String> getWordsByPattern(String pattern) {
-        java.util.List<String> matching = new ArrayList<>();
-        
-        for (String word : words) {
-            if (matchesPattern(word, pattern)) {
-                matching.add(word);
-            }
+    public Dictionary getDictionary() {
+        return current().dictionary;
+    }
+    
+    public int getDefaultLength() {
+        return current().defaultLength;
+    }
+    
+    public Set<Integer> getSupportedLengths() {
+        return current().dictionary.getLengths();
+    }
+    
+    public boolean isSupportedLength(int length) {
+        return current().dictionary.hasLength(length);
+    }
+    
+    public DictionaryPartition getPartition() {
+        return current().words;
+    }
+    
+    public DictionaryPartition getPartition(int length) {
+        return current().dictionary.getPartition(length);
+    }
+    
+    public FeedbackMatrix loadFeedbackMatrix() throws IOException {
+        return loadFeedbackMatrix(getDefaultLength());
+    }
+    
+    public synchronized FeedbackMatrix loadFeedbackMatrix(int length) throws IOException {
+        Dictionary dictionary = current().dictionary;
+        DictionaryPartition partition = dictionary.getPartition(length);
+        if (partition == null) {
+            throw new IOException("Slovník neobsahuje žádná slova o délce " + length);
         }
         
-        return matching;
+        FeedbackMatrix matrix = partition.getFeedbackMatrix();
+        if (matrix == null) {
+            Path path = FeedbackMatrix.pathFor(dictionary.getPath(), length);
+            matrix = FeedbackMatrix.loadOrBuild(path, partition, ForkJoinPool.commonPool());
+            partition.setFeedbackMatrix(matrix);
+        }
+        return matrix;
+    }
+    
+    public int getFeedback(int guessOrdinal, int targetOrdinal) {
+        return getFeedback(current().words, guessOrdinal, targetOrdinal);
     }
     
-    private boolean matchesPattern(String word, String pattern) {
-        if (word.length() != pattern.length()) {
-            return false;
+    public int getFeedback(DictionaryPartition partition, int guessOrdinal, int targetOrdinal) {
+        FeedbackMatrix matrix = partition.getFeedbackMatrix();
+        if (matrix != null) {
+            return matrix.get(guessOrdinal, targetOrdinal);
         }
-        
-        for (int i = 0; i < word.length(); i++) {
-            if (pattern.charAt(i) != '?' && pattern.charAt(i) != word.charAt(i)) {
-                return false;
-            }
+        return Feedback.score(partition.getCode(guessOrdinal), partition.getCode(targetOrdinal),
+                partition.getLength(), LETTER_COUNTS.get());
+    }
+    
+    public String getWord(int ordinal) {
+        return current().words.getWord(ordinal);
+    }
+    
+    public long getCode(int ordinal) {
+        return current().words.getCode(ordinal);
+    }
+    
+    public WordIndex getIndex() {
+        return current().words.getIndex();
+    }
+    
+    public WordCursor findByPattern(String pattern) {
+        return findByPattern(current(), pattern);
+    }
+    
+    private WordCursor findByPattern(Snapshot snapshot, String pattern) {
+        DictionaryPartition partition = snapshot.dictionary.getPartition(pattern.length());
+        if (partition == null) {
+            WordIndex index = snapshot.words.getIndex();
+            return index.cursor(index.newEmptySet());
         }
         
-        return true;
+        WordIndex index = partition.getIndex();
+        long[] set = index.newFullSet();
+        index.retainPattern(set, pattern);
+        return index.cursor(set);
+    }
+    
+    public WordCursor findContaining(char letter) {
+        return findContaining(current().words, letter);
+    }
+    
+    private WordCursor findContaining(DictionaryPartition words, char letter) {
+        WordIndex index = words.getIndex();
+        long[] set = index.newFullSet();
+        index.retainContaining(set, Alphabet.ordinal(letter));
+        return index.cursor(set);
+    }
+    
+    public WordCursor findNotContaining(char letter) {
+        return findNotContaining(current().words, letter);
+    }
+    
+    private WordCursor findNotContaining(DictionaryPartition words, char letter) {
+        WordIndex index = words.getIndex();
+        long[] set = index.newFullSet();
+        index.removeContaining(set, Alphabet.ordinal(letter));
+        return index.cursor(set);
+    }
+    
+    public int countByPattern(String pattern) {
+        return findByPattern(pattern).count();
+    }
+    
+    public java.util.List<String> getWordsByPattern(String pattern) {
+        Snapshot snapshot = current();
+        DictionaryPartition partition = snapshot.dictionary.getPartition(pattern.length());
+        return collect(partition != null ? partition : snapshot.words, findByPattern(snapshot, pattern));
     }
     
     public java.util.List<String> getWordsContaining(char letter) {
-        return words.stream()
-            .filter(w -> w.indexOf(letter) >= 0)
-            .collect(Collectors.toList());
+        DictionaryPartition words = current().words;
+        return collect(words, findContaining(words, letter));
     }
     
     public java.util.List<String> getWordsNotContaining(char letter) {
-        return words.stream()
-            .filter(w -> w.indexOf(letter) < 0)
-            .collect(Collectors.toList());
+        DictionaryPartition words = current().words;
+        return collect(words, findNotContaining(words, letter));
+    }
+    
+    private java.util.List<String> collect(DictionaryPartition partition, WordCursor cursor) {
+        java.util.List<String> matching = new ArrayList<>(cursor.count());
+        int ordinal;
+        while ((ordinal = cursor.next()) >= 0) {
+            matching.add(partition.getWord(ordinal));
+        }
+        return matching;
     }
     
     public Map<Character, Integer> getLetterFrequency() {
-        Map<Character, Integer> frequency = new HashMap<>();
+        DictionaryPartition words = current().words;
+        int[] counts = new int[Alphabet.SIZE + 1];
+        for (int i = 0; i < words.getCount(); i++) {
+            for (int j = 0; j < words.getLength(); j++) {
+                counts[words.letterAt(i, j)]++;
+            }
+        }
         
-        for (String word : words) {
-            for (char c : word.toCharArray()) {
-                frequency.put(c, frequency.getOrDefault(c, 0) + 1);
+        Map<Character, Integer> frequency = new HashMap<>();
+        for (int letter = 1; letter <= Alphabet.SIZE; letter++) {
+            if (counts[letter] > 0) {
+                frequency.put(Alphabet.letter(letter), counts[letter]);
             }
         }
         
@@ -337,35 +343,64 @@ public class WordList {
     }
     
     private java.util.List<String> getRandomWordsByDifficultyRange(int min, int max, int count) {
-        java.util.List<String> filtered = words.stream()
-            .filter(w -> {
-                int diff = wordDifficulty.getOrDefault(w, 5);
-                return diff >= min && diff <= max;
-            })
-            .limit(count)
-            .collect(Collectors.toList());
+        DictionaryPartition words = current().words;
+        Random random = ThreadLocalRandom.current();
+        int start = words.getDifficultyStart(min);
+        int size = Math.max(0, words.getDifficultyEnd(max) - start);
+        int sampleSize = Math.min(count, size);
+        
+        int[] picked = new int[sampleSize];
+        for (int i = 0; i < sampleSize; i++) {
+            int candidate = random.nextInt(size - sampleSize + i + 1);
+            for (int j = 0; j < i; j++) {
+                if (picked[j] == candidate) {
+                    candidate = size - sampleSize + i;
+                    break;
+                }
+            }
+            picked[i] = candidate;
+        }
         
-        Collections.shuffle(filtered, random);
-        return filtered;
+        java.util.List<String> sample = new ArrayList<>(sampleSize);
+        for (int index : picked) {
+            sample.add(words.getWord(words.getOrdinalByDifficulty(start + index)));
+        }
+        
+        Collections.shuffle(sample, random);
+        return sample;
     }
     
     public String getWordInfo(String word) {
         word = word.toLowerCase();
-        if (!isValidWord(word)) {
+        DictionaryPartition partition = getPartition(word.length());
+        int ordinal = partition != null ? partition.indexOf(word) : -1;
+        if (ordinal < 0) {
             return "Slovo není v seznamu";
         }
         
-        int difficulty = getDifficulty(word);
         Set<Character> uniqueLetters = new HashSet<>();
         for (char c : word.toCharArray()) {
             uniqueLetters.add(c);
         }
         
-        return String.format("Slovo: %s | Obtížnost: %d/15 | Unikátní písmena: %d/5",
-            word.toUpperCase(), difficulty, uniqueLetters.size());
+        return String.format("Slovo: %s | Obtížnost: %d/15 | Očekávané pokusy: %.1f | Unikátní písmena: %d/%d",
+            word.toUpperCase(), partition.getDifficulty(ordinal), partition.getExpectedGuesses(ordinal),
+            uniqueLetters.size(), word.length());
     }
     
     public void resetUsageCount() {
-        totalWordsUsed = 0;
+        totalWordsUsed.reset();
+    }
+    
+    private static final class Snapshot {
+        private final Dictionary dictionary;
+        private final int defaultLength;
+        private final DictionaryPartition words;
+        
+        private Snapshot(Dictionary dictionary, int defaultLength, DictionaryPartition words) {
+            this.dictionary = dictionary;
+            this.defaultLength = defaultLength;
+            this.words = words;
+        }
     }
 }
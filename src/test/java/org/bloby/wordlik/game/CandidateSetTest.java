@@ -0,0 +1,76 @@
+package org.bloby.wordlik.game;
+
+import org.bloby.wordlik.utils.Dictionary;
+import org.bloby.wordlik.utils.DictionaryCompiler;
+import org.bloby.wordlik.utils.DictionaryPartition;
+import org.bloby.wordlik.utils.Feedback;
+import org.bloby.wordlik.utils.WordCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CandidateSetTest {
+    
+    private static final List<String> WORDS = List.of(
+            "kočka", "kokos", "sokol", "lokal", "kolos", "motor", "rotor", "tokar", "kasta", "ababa", "aabcd", "bacde");
+    
+    @TempDir
+    Path folder;
+    
+    @Test
+    void keepsExactlyWordsConsistentWithFeedback() throws IOException {
+        DictionaryPartition words = compile();
+        int[] counts = Feedback.newLetterCounts();
+        
+        for (String target : WORDS) {
+            for (String guess : WORDS) {
+                long guessCode = WordCode.encode(guess);
+                int pattern = Feedback.score(guessCode, WordCode.encode(target), 5, counts);
+                
+                CandidateSet candidates = new CandidateSet(words);
+                candidates.apply(guessCode, pattern);
+                
+                int expected = 0;
+                for (String word : WORDS) {
+                    long code = WordCode.encode(word);
+                    boolean consistent = Feedback.score(guessCode, code, 5, counts) == pattern;
+                    assertEquals(consistent, candidates.contains(code), guess + " / " + target + " / " + word);
+                    if (consistent) {
+                        expected++;
+                    }
+                }
+                assertEquals(expected, candidates.getRemainingCount());
+                assertTrue(candidates.contains(WordCode.encode(target)));
+            }
+        }
+    }
+    
+    @Test
+    void repeatedGuessesNarrowToTarget() throws IOException {
+        DictionaryPartition words = compile();
+        int[] counts = Feedback.newLetterCounts();
+        long target = WordCode.encode("kolos");
+        
+        CandidateSet candidates = new CandidateSet(words);
+        for (String guess : new String[] {"kokos", "sokol", "lokal"}) {
+            long guessCode = WordCode.encode(guess);
+            candidates.apply(guessCode, Feedback.score(guessCode, target, 5, counts));
+        }
+        assertEquals(List.of("kolos"), candidates.getCandidates(10));
+    }
+    
+    private DictionaryPartition compile() throws IOException {
+        Path source = folder.resolve("words.txt");
+        Path target = folder.resolve("words.dict");
+        Files.write(source, WORDS);
+        DictionaryCompiler.compile(source, target);
+        return Dictionary.open(target).getPartition(5);
+    }
+}
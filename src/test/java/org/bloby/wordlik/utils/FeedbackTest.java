@@ -0,0 +1,56 @@
+package org.bloby.wordlik.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FeedbackTest {
+    
+    private static final int A = Feedback.ABSENT;
+    private static final int P = Feedback.PRESENT;
+    private static final int C = Feedback.CORRECT;
+    
+    @Test
+    void repeatedGuessLetterMatchesOnlyTargetPositions() {
+        assertDigits("aaaaa", "ababa", C, A, C, A, C);
+    }
+    
+    @Test
+    void correctLetterConsumesTheOnlyOccurrence() {
+        assertDigits("aaxyz", "abcde", C, A, A, A, A);
+        assertDigits("aaxyz", "bacde", A, C, A, A, A);
+    }
+    
+    @Test
+    void presentLettersAreLimitedByTargetCount() {
+        assertDigits("xyaaa", "aabcd", A, A, P, P, A);
+        assertDigits("abbbb", "bxxxb", A, P, A, A, C);
+    }
+    
+    @Test
+    void exactMatchIsAllCorrect() {
+        int[] counts = Feedback.newLetterCounts();
+        for (String word : new String[] {"kočka", "ababa", "motor"}) {
+            long code = WordCode.encode(word);
+            assertEquals(Feedback.allCorrect(5), Feedback.score(code, code, 5, counts));
+        }
+    }
+    
+    @Test
+    void letterCountsAreLeftCleared() {
+        int[] counts = Feedback.newLetterCounts();
+        Feedback.score(WordCode.encode("xyaaa"), WordCode.encode("aabcd"), 5, counts);
+        assertArrayEquals(new int[counts.length], counts);
+    }
+    
+    private static void assertDigits(String guess, String target, int... expected) {
+        int pattern = Feedback.score(WordCode.encode(guess), WordCode.encode(target), guess.length(),
+                Feedback.newLetterCounts());
+        int[] actual = new int[guess.length()];
+        for (int i = 0; i < actual.length; i++) {
+            actual[i] = Feedback.digit(pattern, i);
+        }
+        assertArrayEquals(expected, actual, guess + " -> " + target);
+    }
+}
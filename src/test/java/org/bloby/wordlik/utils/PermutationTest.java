@@ -0,0 +1,68 @@
+package org.bloby.wordlik.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PermutationTest {
+    
+    @Test
+    void visitsEveryIndexExactlyOnce() {
+        for (int size : new int[] {1, 2, 3, 7, 100, 1000, 4097, 65537}) {
+            for (long seed = 0; seed < 4; seed++) {
+                Permutation permutation = new Permutation(size, seed);
+                boolean[] seen = new boolean[size];
+                for (int i = 0; i < size; i++) {
+                    int value = permutation.get(i);
+                    assertTrue(value >= 0 && value < size, "velikost " + size + ", index " + i + " -> " + value);
+                    assertFalse(seen[value], "velikost " + size + " opakuje " + value);
+                    seen[value] = true;
+                }
+                assertEquals(size, permutation.size());
+            }
+        }
+    }
+    
+    @Test
+    void sameSeedGivesSameOrder() {
+        Permutation first = new Permutation(1000, 42);
+        Permutation second = new Permutation(1000, 42);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(first.get(i), second.get(i));
+        }
+    }
+    
+    @Test
+    void differentSeedsShuffleDifferently() {
+        Permutation first = new Permutation(1000, 1);
+        Permutation second = new Permutation(1000, 2);
+        int same = 0;
+        int fixed = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (first.get(i) == second.get(i)) {
+                same++;
+            }
+            if (first.get(i) == i) {
+                fixed++;
+            }
+        }
+        assertTrue(same < 100, "shodných pozic: " + same);
+        assertTrue(fixed < 100, "pevných bodů: " + fixed);
+    }
+    
+    @Test
+    void rejectsIndexOutsideRange() {
+        Permutation permutation = new Permutation(10, 0);
+        assertThrows(IndexOutOfBoundsException.class, () -> permutation.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> permutation.get(10));
+    }
+    
+    @Test
+    void rejectsEmptySize() {
+        assertThrows(IllegalArgumentException.class, () -> new Permutation(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Permutation(-5, 0));
+    }
+}
@@ -0,0 +1,103 @@
+package org.bloby.wordlik.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankedTreeTest {
+    
+    @Test
+    void matchesSortedListUnderRandomChanges() {
+        RankedTree<Integer> tree = new RankedTree<>(Comparator.naturalOrder());
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(7);
+        
+        for (int step = 0; step < 5000; step++) {
+            int value = random.nextInt(500);
+            int position = Collections.binarySearch(expected, value);
+            if (position < 0) {
+                tree.add(value);
+                expected.add(-position - 1, value);
+            } else {
+                assertTrue(tree.remove(value));
+                expected.remove(position);
+            }
+            
+            if (step % 250 == 0) {
+                assertMatches(expected, tree);
+            }
+        }
+        assertMatches(expected, tree);
+    }
+    
+    @Test
+    void rankCountsElementsStrictlyBefore() {
+        RankedTree<Integer> tree = new RankedTree<>(Comparator.naturalOrder());
+        for (int value : new int[] {50, 10, 40, 20, 30}) {
+            tree.add(value);
+        }
+        
+        assertEquals(0, tree.rank(10));
+        assertEquals(2, tree.rank(30));
+        assertEquals(4, tree.rank(50));
+        assertEquals(0, tree.rank(5));
+        assertEquals(3, tree.rank(35));
+        assertEquals(5, tree.rank(99));
+    }
+    
+    @Test
+    void rankFollowsReversedComparator() {
+        RankedTree<Integer> tree = new RankedTree<>(Comparator.<Integer>naturalOrder().reversed());
+        for (int value : new int[] {3, 1, 2}) {
+            tree.add(value);
+        }
+        
+        assertEquals(3, (int) tree.get(0));
+        assertEquals(2, tree.rank(1));
+        assertEquals(0, tree.rank(3));
+    }
+    
+    @Test
+    void removeReportsWhetherElementWasPresent() {
+        RankedTree<Integer> tree = new RankedTree<>(Comparator.naturalOrder());
+        tree.add(1);
+        tree.add(2);
+        
+        assertFalse(tree.remove(3));
+        assertEquals(2, tree.size());
+        assertTrue(tree.remove(1));
+        assertFalse(tree.remove(1));
+        assertEquals(1, tree.size());
+        assertEquals(2, (int) tree.get(0));
+        assertEquals(0, tree.rank(2));
+    }
+    
+    @Test
+    void getRejectsIndexOutsideRange() {
+        RankedTree<Integer> tree = new RankedTree<>(Comparator.naturalOrder());
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(0));
+        tree.add(1);
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(-1));
+        
+        tree.clear();
+        assertEquals(0, tree.size());
+    }
+    
+    private static void assertMatches(List<Integer> expected, RankedTree<Integer> tree) {
+        assertEquals(expected.size(), tree.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), tree.get(i));
+            assertEquals(i, tree.rank(expected.get(i)));
+        }
+    }
+}
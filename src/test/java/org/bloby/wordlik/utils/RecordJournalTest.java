@@ -0,0 +1,225 @@
+package org.bloby.wordlik.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordJournalTest {
+    
+    private static final UUID FIRST = new UUID(1, 1);
+    private static final UUID SECOND = new UUID(2, 2);
+    private static final UUID THIRD = new UUID(3, 3);
+    
+    @TempDir
+    Path folder;
+    
+    @Test
+    void committedRecordsSurviveReopen() throws IOException {
+        RecordJournal journal = open();
+        journal.append(FIRST, bytes("a1"));
+        journal.append(SECOND, bytes("b1"));
+        journal.append(FIRST, bytes("a2"));
+        journal.commit();
+        journal.close();
+        
+        RecordJournal reopened = open();
+        assertArrayEquals(bytes("a2"), reopened.read(FIRST));
+        assertArrayEquals(bytes("b1"), reopened.read(SECOND));
+        assertEquals(2, reopened.size());
+        assertEquals(0, reopened.getDiscardedBytes());
+        reopened.close();
+    }
+    
+    @Test
+    void tornTailIsDiscarded() throws IOException {
+        RecordJournal journal = open();
+        journal.append(FIRST, bytes("a1"));
+        journal.append(SECOND, bytes("b1"));
+        journal.commit();
+        journal.close();
+        
+        Path file = onlyJournal();
+        long intact = Files.size(file);
+        byte[] torn = new byte[24 + 10];
+        ByteBuffer.wrap(torn).putInt(100);
+        Files.write(file, torn, java.nio.file.StandardOpenOption.APPEND);
+        
+        RecordJournal reopened = open();
+        assertArrayEquals(bytes("a1"), reopened.read(FIRST));
+        assertArrayEquals(bytes("b1"), reopened.read(SECOND));
+        assertEquals(torn.length, reopened.getDiscardedBytes());
+        
+        reopened.append(THIRD, bytes("c1"));
+        reopened.commit();
+        reopened.close();
+        assertEquals(intact + torn.length, Files.size(file));
+        
+        RecordJournal again = open();
+        assertArrayEquals(bytes("c1"), again.read(THIRD));
+        again.close();
+    }
+    
+    @Test
+    void recordWithBadChecksumEndsReplay() throws IOException {
+        RecordJournal journal = open();
+        journal.append(FIRST, bytes("a1"));
+        journal.append(SECOND, bytes("b1"));
+        journal.append(THIRD, bytes("c1"));
+        journal.commit();
+        journal.close();
+        
+        Path file = onlyJournal();
+        byte[] data = Files.readAllBytes(file);
+        int secondPayload = (24 + 2) + 24;
+        data[secondPayload] ^= 0x01;
+        Files.write(file, data);
+        
+        RecordJournal reopened = open();
+        assertArrayEquals(bytes("a1"), reopened.read(FIRST));
+        assertNull(reopened.read(SECOND));
+        assertNull(reopened.read(THIRD));
+        assertEquals(2 * (24 + 2), reopened.getDiscardedBytes());
+        reopened.close();
+    }
+    
+    @Test
+    void compactionMergesIntoSnapshot() throws IOException {
+        RecordJournal journal = open();
+        journal.append(FIRST, bytes("a1"));
+        journal.append(SECOND, bytes("b1"));
+        journal.commit();
+        journal.compact();
+        journal.append(FIRST, bytes("a2"));
+        journal.commit();
+        
+        assertArrayEquals(bytes("a2"), journal.read(FIRST));
+        assertArrayEquals(bytes("b1"), journal.read(SECOND));
+        journal.close();
+        
+        assertTrue(Files.exists(folder.resolve("test.snapshot")));
+        RecordJournal reopened = open();
+        assertArrayEquals(bytes("a2"), reopened.read(FIRST));
+        assertArrayEquals(bytes("b1"), reopened.read(SECOND));
+        assertEquals(2, reopened.size());
+        reopened.close();
+    }
+    
+    @Test
+    void crashBeforeSnapshotMoveKeepsJournals() throws IOException {
+        RecordJournal journal = open();
+        journal.append(FIRST, bytes("a1"));
+        journal.commit();
+        journal.close();
+        
+        Files.write(folder.resolve("test.snapshot.tmp"), bytes("half written snapshot"));
+        Files.createFile(folder.resolve("test-7.journal"));
+        
+        RecordJournal reopened = open();
+        assertArrayEquals(bytes("a1"), reopened.read(FIRST));
+        reopened.append(SECOND, bytes("b1"));
+        reopened.commit();
+        reopened.compact();
+        reopened.close();
+        
+        RecordJournal again = open();
+        assertArrayEquals(bytes("a1"), again.read(FIRST));
+        assertArrayEquals(bytes("b1"), again.read(SECOND));
+        again.close();
+    }
+    
+    @Test
+    void crashAfterSnapshotMoveIgnoresMergedJournals() throws IOException {
+        RecordJournal journal = open();
+        journal.append(FIRST, bytes("a1"));
+        journal.commit();
+        Path merged = onlyJournal();
+        Path copy = folder.resolve("merged.copy");
+        
+        journal.append(FIRST, bytes("a2"));
+        journal.commit();
+        Files.copy(merged, copy);
+        journal.compact();
+        journal.close();
+        
+        Files.move(copy, merged, StandardCopyOption.REPLACE_EXISTING);
+        
+        RecordJournal reopened = open();
+        assertArrayEquals(bytes("a2"), reopened.read(FIRST));
+        assertFalse(Files.exists(merged));
+        reopened.close();
+    }
+    
+    @Test
+    void versionOneSnapshotIsLoadedAndUpgraded() throws IOException {
+        writeVersionOneSnapshot(folder.resolve("test.snapshot"), 0);
+        
+        RecordJournal journal = open();
+        assertArrayEquals(bytes("a1"), journal.read(FIRST));
+        assertArrayEquals(bytes("b1"), journal.read(SECOND));
+        journal.compact();
+        journal.close();
+        
+        assertEquals(RecordJournal.VERSION, ByteBuffer.wrap(Files.readAllBytes(folder.resolve("test.snapshot"))).getInt(4));
+        RecordJournal reopened = open();
+        assertArrayEquals(bytes("a1"), reopened.read(FIRST));
+        assertArrayEquals(bytes("b1"), reopened.read(SECOND));
+        reopened.close();
+    }
+    
+    private RecordJournal open() throws IOException {
+        RecordJournal journal = new RecordJournal(folder, "test");
+        journal.open();
+        return journal;
+    }
+    
+    private Path onlyJournal() throws IOException {
+        try (java.util.stream.Stream<Path> files = Files.list(folder)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".journal"))
+                    .filter(file -> {
+                        try {
+                            return Files.size(file) > 0;
+                        } catch (IOException e) {
+                            return false;
+                        }
+                    })
+                    .findFirst().orElseThrow(IllegalStateException::new);
+        }
+    }
+    
+    private static void writeVersionOneSnapshot(Path path, long generation) throws IOException {
+        byte[] first = bytes("a1");
+        byte[] second = bytes("b1");
+        ByteBuffer buffer = ByteBuffer.allocate(20 + 2 * 20 + first.length + second.length + 4);
+        buffer.putInt(RecordJournal.MAGIC);
+        buffer.putInt(1);
+        buffer.putLong(generation);
+        buffer.putInt(2);
+        buffer.putLong(FIRST.getMostSignificantBits()).putLong(FIRST.getLeastSignificantBits());
+        buffer.putInt(first.length).put(first);
+        buffer.putLong(SECOND.getMostSignificantBits()).putLong(SECOND.getLeastSignificantBits());
+        buffer.putInt(second.length).put(second);
+        
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        Files.write(path, buffer.array());
+    }
+    
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}